@@ -191,6 +191,13 @@ logger.info("OAuthAuthenicationSuccessHandler: Google New user check before user
         else {
 
             User user = userRepo.findByEmail(useremail).orElseThrow();
+
+            // the row of a deleted account lives on until its purge job removes it
+            if (user.isDeleted()) {
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "This account has been deleted.");
+                return;
+            }
+
             accessToken = jwtService.generateAccessToken(user);
             refreshToken = jwtService.generateRefreshToken(user);
 
@@ -0,0 +1,44 @@
+package com.nd.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Hibernate used to create status columns as native MySQL enum(...) types, and ddl-auto=update never changes the
+ * type of an existing column, so a database created before a ProductStatus value was added rejects it with
+ * "Data truncated for column 'status'". The entities now map status as VARCHAR; this converts any column still
+ * left as an enum. Runs once Hibernate has updated the schema and before anything writes a status.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class StatusColumnMigration {
+
+    private static final String COLUMN_TYPE_SQL = "SELECT DATA_TYPE FROM information_schema.COLUMNS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = 'status'";
+
+    // every table with an @Enumerated(STRING) ProductStatus column
+    private static final List<String> TABLES = List.of("products", "archived_products");
+
+    private final Logger logger = LoggerFactory.getLogger(StatusColumnMigration.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    void convertEnumColumns() {
+        for (String table : TABLES) {
+            List<String> types = jdbcTemplate.queryForList(COLUMN_TYPE_SQL, String.class, table);
+            if (!types.isEmpty() && "enum".equalsIgnoreCase(types.get(0))) {
+                jdbcTemplate.execute("ALTER TABLE " + table + " MODIFY status VARCHAR(32) NOT NULL");
+                logger.info("Converted {}.status from enum to VARCHAR(32)", table);
+            }
+        }
+    }
+}
@@ -1,7 +1,13 @@
 package com.nd.controller;
 
+import com.nd.dto.FeedCacheStatsDto;
+import com.nd.dto.ImageUploadStatsDto;
 import com.nd.dto.UserDto;
+import com.nd.entities.PurgeJob;
 import com.nd.service.AdminService;
+import com.nd.service.FeedCacheService;
+import com.nd.service.PurgeService;
+import com.nd.service.S3ImageService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -16,6 +22,15 @@ public class AdminController {
     @Autowired
     private AdminService adminService;
 
+    @Autowired
+    private FeedCacheService feedCacheService;
+
+    @Autowired
+    private PurgeService purgeService;
+
+    @Autowired
+    private S3ImageService s3ImageService;
+
 
     @PostMapping("/add/{userId}")
     public ResponseEntity<String> addAdmin(@PathVariable int userId,
@@ -36,4 +51,24 @@ public class AdminController {
         adminService.removeAdminRoleFromUser(userId, authHeader);
         return ResponseEntity.ok("Admin role removed successfully.");
     }
+
+    @GetMapping("/feed-cache/stats")
+    public ResponseEntity<FeedCacheStatsDto> getFeedCacheStats() {
+        return ResponseEntity.ok(feedCacheService.getStats());
+    }
+
+    @GetMapping("/uploads/stats")
+    public ResponseEntity<ImageUploadStatsDto> getUploadStats() {
+        return ResponseEntity.ok(s3ImageService.getUploadStats());
+    }
+
+    @GetMapping("/purge-jobs")
+    public ResponseEntity<List<PurgeJob>> getPurgeJobs(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(purgeService.getRecentJobs(limit));
+    }
+
+    @GetMapping("/purge-jobs/{jobId}")
+    public ResponseEntity<PurgeJob> getPurgeJob(@PathVariable long jobId) {
+        return ResponseEntity.ok(purgeService.getJob(jobId));
+    }
 }
@@ -3,27 +3,42 @@ package com.nd.controller;
 import com.nd.dto.*;
 import com.nd.enums.NotificationType;
 import com.nd.enums.ReferenceType;
+import com.nd.exceptions.ApiException;
 import com.nd.exceptions.ProductException;
+import com.nd.service.AutocompleteService;
+import com.nd.service.FeedCacheService;
 import com.nd.service.JwtService;
 import com.nd.service.NotificationService;
+import com.nd.service.ProductExportService;
 import com.nd.service.ProductService;
+import com.nd.service.SharedProductSnapshotService;
 import com.nd.service.WantlistService;
+import com.nd.utils.ETags;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
 
+    // shared snapshots change rarely and are mostly fetched by crawlers
+    private static final CacheControl SHARED_CACHE = CacheControl.maxAge(1, TimeUnit.DAYS).cachePublic();
+
     @Autowired
     private ProductService productService;
 
@@ -36,10 +51,28 @@ public class ProductController {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private AutocompleteService autocompleteService;
+
+    @Autowired
+    private FeedCacheService feedCacheService;
+
+    @Autowired
+    private SharedProductSnapshotService sharedProductSnapshotService;
+
+    @Autowired
+    private ProductExportService productExportService;
+
     @GetMapping("/{productId}")
-    public ResponseEntity<ProductDto> getProductById(@RequestHeader("Authorization") String token,@PathVariable Integer productId) {
+    public ResponseEntity<ProductDto> getProductById(@RequestHeader("Authorization") String token,@PathVariable Integer productId,
+                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String eTag = productService.getProductETag(productId, token);
+        if (ETags.matches(ifNoneMatch, eTag)) {
+            productService.recordRevalidatedView(productId, token);
+            return notModified(eTag);
+        }
         ProductDto productDto = productService.getProductById(productId,token);
-        return ResponseEntity.ok(productDto);
+        return eTag != null ? withETag(eTag).body(productDto) : ResponseEntity.ok(productDto);
     }
 
 
@@ -100,6 +133,8 @@ public class ProductController {
         try {
             ProductDto updatedProduct = productService.updateProduct(productId, productDto);
             return ResponseEntity.ok(updatedProduct);
+        } catch (ApiException ex) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
         } catch (IllegalArgumentException ex) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
         } catch (Exception ex) {
@@ -113,13 +148,14 @@ public class ProductController {
     public ResponseEntity<String> relistProduct(@PathVariable Integer productId) throws ProductException {
         boolean newProduct = productService.relistProduct(productId);
         if (newProduct)
-            return ResponseEntity.ok("Product successfully marked as sold and removed.");
-        else return ResponseEntity.status(404).body("Unable to mark the product as sold. Please try again.");
+            return ResponseEntity.ok("Product successfully relisted.");
+        else return ResponseEntity.status(404).body("Unable to relist the product. Please try again.");
     }
 
     @PostMapping("/university")
-    public ResponseEntity<Page<ProductDto>> getProductsByUniversity(
+    public ResponseEntity<?> getProductsByUniversity(
             @RequestHeader("Authorization") String authHeader,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
             @RequestBody(required = false) ProductSortFilterRequest request) {
 
         int universityId = jwtService.getUniversityIdFromToken(authHeader);
@@ -134,22 +170,36 @@ public class ProductController {
                 ", Category: " + request.getCategory() + ", MinPrice: " + request.getMinPrice() +
                 ", MaxPrice: " + request.getMaxPrice());
 
-        Page<ProductDto> products = productService.getProductsByUniversityId(
-                universityId,
-                request.getSortField(),
-                request.getSortDir(),
-                request.getPage(),
-                request.getSize(),
-                request.getCategory(),
-                request.getMinPrice(),
-                request.getMaxPrice()
-        );
-        return ResponseEntity.ok(products);
+        // live ranking, so neither cached nor tagged
+        if (request.isTrendingSort()) {
+            return ResponseEntity.ok(productService.getTrendingProducts(universityId, request));
+        }
+
+        // per user, so never tagged
+        if (request.isForYouSort()) {
+            int userId = jwtService.getUserIdFromToken(authHeader);
+            return ResponseEntity.ok(productService.getPersonalizedProducts(universityId, userId, request));
+        }
+
+        // Nothing changed on this campus since the client's copy: skip the query and mapping entirely
+        String eTag = feedCacheService.getFeedETag(universityId, request);
+        if (ETags.matches(ifNoneMatch, eTag)) {
+            return notModified(eTag);
+        }
+
+        if (request.isCursorMode()) {
+            CursorPage<ProductDto> products = productService.getProductsByUniversityIdAfterCursor(universityId, request);
+            return withETag(eTag).body(products);
+        }
+
+        Page<ProductDto> products = productService.getProductsByUniversityId(universityId, request);
+        return withETag(eTag).body(products);
     }
 
     @PostMapping("/public/university/{universityId}")
-    public ResponseEntity<Page<ProductDto>> getProductsByUniversity(
+    public ResponseEntity<?> getProductsByUniversity(
             @PathVariable Integer universityId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
             @RequestBody(required = false) ProductSortFilterRequest request) {
 
         // If no body is provided, create a default request.
@@ -163,17 +213,37 @@ public class ProductController {
                 ", Category: " + request.getCategory() + ", MinPrice: " + request.getMinPrice() +
                 ", MaxPrice: " + request.getMaxPrice());
 
-        Page<ProductDto> products = productService.getProductsByUniversityId(
-                universityId,
-                request.getSortField(),
-                request.getSortDir(),
-                request.getPage(),
-                request.getSize(),
-                request.getCategory(),
-                request.getMinPrice(),
-                request.getMaxPrice()
-        );
-        return ResponseEntity.ok(products);
+        // live ranking, so neither cached nor tagged
+        if (request.isTrendingSort()) {
+            return ResponseEntity.ok(productService.getTrendingProducts(universityId, request));
+        }
+
+        // Nothing changed on this campus since the client's copy: skip the query and mapping entirely
+        String eTag = feedCacheService.getFeedETag(universityId, request);
+        if (ETags.matches(ifNoneMatch, eTag)) {
+            return notModified(eTag);
+        }
+
+        if (request.isCursorMode()) {
+            CursorPage<ProductDto> products = productService.getProductsByUniversityIdAfterCursor(universityId, request);
+            return withETag(eTag).body(products);
+        }
+
+        Page<ProductDto> products = productService.getProductsByUniversityId(universityId, request);
+        return withETag(eTag).body(products);
+    }
+
+    // Any combination of category / condition / price / age / status, with counts for every facet value
+    @PostMapping("/university/facets")
+    public ResponseEntity<FacetSearchResultDto> getFacetedProducts(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestBody(required = false) FacetFilterRequest request) {
+
+        int universityId = jwtService.getUniversityIdFromToken(authHeader);
+        if (request == null) {
+            request = new FacetFilterRequest();
+        }
+        return ResponseEntity.ok(productService.getFacetedProducts(universityId, request));
     }
 
     @GetMapping
@@ -182,6 +252,16 @@ public class ProductController {
         return ResponseEntity.ok(products);
     }
 
+    // Same listings as above, written one JSON object per line while they are read (mode=stream)
+    @GetMapping(params = "mode=stream")
+    public ResponseEntity<StreamingResponseBody> exportAllProducts(@RequestHeader("Authorization") String authHeader) {
+        if (jwtService.getUserIdFromToken(authHeader) == 0) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        StreamingResponseBody body = out -> productExportService.exportProducts(out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @GetMapping("/search/{searchTerm}")
     public ResponseEntity<?> searchProducts(
             @RequestHeader("Authorization") String authHeader,
@@ -192,6 +272,12 @@ public class ProductController {
         Page<ProductDto> products = productService.searchProductsByUniversity(universityId, searchTerm, pageable);
 
         if (products.isEmpty()) {
+            // Misspelled term: answer with the corrected search in the same response
+            SearchSuggestionDto corrected = productService.searchWithSpellingCorrection(universityId, searchTerm, pageable);
+            if (corrected != null) {
+                return ResponseEntity.ok(corrected);
+            }
+
             // Return a custom message when no products are found
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("message", "No such product found. Please check the spelling or try a different search term."));
@@ -202,6 +288,17 @@ public class ProductController {
 
 
 
+    // Search-as-you-type, answered from memory so it can be called on every keystroke
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<AutocompleteSuggestionDto>> autocomplete(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "8") int limit) {
+
+        int universityId = jwtService.getUniversityIdFromToken(authHeader);
+        return ResponseEntity.ok(autocompleteService.complete(universityId, prefix, limit));
+    }
+
     @GetMapping("/seller")
     public ResponseEntity<List<ProductDto>> getProductsBySeller(@RequestHeader("Authorization") String authHeader) {
         List<ProductDto> products = productService.getProductsBySellerId(authHeader);
@@ -220,18 +317,49 @@ public class ProductController {
         }
     }
 
+    // Untagged, so the count is current even when the product page itself comes back 304
+    @GetMapping("/{productId}/views")
+    public ResponseEntity<Long> getViewCount(@PathVariable Integer productId) {
+        return ResponseEntity.ok(productService.getViewCount(productId));
+    }
+
     @GetMapping("/{productId}/interested-buyers")
     public ResponseEntity<List<InterestedBuyerDto>> getInterestedBuyers(@PathVariable int productId) {
         List<InterestedBuyerDto> buyers = productService.getInterestedBuyers(productId);
         return ResponseEntity.ok(buyers);
     }
 
+    @GetMapping("/{productId}/similar")
+    public ResponseEntity<List<ProductDto>> getSimilarProducts(
+            @PathVariable int productId,
+            @RequestParam(defaultValue = "6") int limit) {
+        return ResponseEntity.ok(productService.getSimilarProducts(productId, limit));
+    }
+
     @GetMapping("/public/shared-product/{productId}")
-    public ResponseEntity<ShareProductDto> getSharedProduct(@PathVariable int productId) {
+    public ResponseEntity<byte[]> getSharedProduct(@PathVariable int productId,
+                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 
-        ShareProductDto shareProductDto=productService.getsharedProduct(productId);
+        SharedProductSnapshot snapshot = sharedProductSnapshotService.getSnapshot(productId);
+        if (ETags.matches(ifNoneMatch, snapshot.getETag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(snapshot.getETag()).cacheControl(SHARED_CACHE).build();
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).eTag(snapshot.getETag())
+                .cacheControl(SHARED_CACHE).body(snapshot.getJson());
+    }
 
-        return ResponseEntity.ok(shareProductDto);
+    // OpenGraph page for link previews (WhatsApp, Instagram...); browsers are redirected to the app
+    @GetMapping("/public/shared-product/{productId}/page")
+    public ResponseEntity<byte[]> getSharedProductPage(@PathVariable int productId,
+                                                       @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        SharedProductSnapshot snapshot = sharedProductSnapshotService.getSnapshot(productId);
+        String eTag = snapshot.getETag() + "-page";
+        if (ETags.matches(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(SHARED_CACHE).build();
+        }
+        return ResponseEntity.ok().contentType(new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8)).eTag(eTag)
+                .cacheControl(SHARED_CACHE).body(snapshot.getHtml());
     }
 
     @DeleteMapping("/remove-by-user/{productId}")
@@ -274,4 +402,13 @@ public class ProductController {
         else return ResponseEntity.status(404).body("Failed to mark the product as sold. Please try again.");
 
     }
+
+    // no-cache keeps the response storable but makes the client revalidate with If-None-Match every time
+    private ResponseEntity.BodyBuilder withETag(String eTag) {
+        return ResponseEntity.ok().eTag(eTag).cacheControl(CacheControl.noCache().cachePrivate());
+    }
+
+    private <T> ResponseEntity<T> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(CacheControl.noCache().cachePrivate()).build();
+    }
 }
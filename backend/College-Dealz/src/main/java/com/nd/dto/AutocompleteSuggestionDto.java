@@ -0,0 +1,19 @@
+package com.nd.dto;
+
+import com.nd.enums.Category;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AutocompleteSuggestionDto {
+
+    private String text;
+
+    // set when the suggestion is a category rather than a listing name
+    private Category category;
+
+    private int listingCount;
+}
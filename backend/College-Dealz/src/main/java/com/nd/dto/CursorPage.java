@@ -0,0 +1,22 @@
+package com.nd.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private List<T> content;
+
+    // Opaque token to send back as "cursor" for the next page, null on the last page
+    private String nextCursor;
+
+    private boolean hasNext;
+
+    private int size;
+}
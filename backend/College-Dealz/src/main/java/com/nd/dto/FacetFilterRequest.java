@@ -0,0 +1,17 @@
+package com.nd.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+// Selected values per facet; values inside one facet are alternatives, facets are combined
+@Data
+public class FacetFilterRequest {
+    private List<String> category;   // e.g. ["BOOKS", "STATIONERY"]
+    private List<String> condition;  // e.g. ["LIKE_NEW"]
+    private List<String> price;      // buckets, e.g. ["500-1000"]
+    private List<String> age;        // monthsOld buckets, e.g. ["0-3", "3-6"]
+    private List<String> status;     // e.g. ["AVAILABLE"]
+    private Integer page;
+    private Integer size;
+}
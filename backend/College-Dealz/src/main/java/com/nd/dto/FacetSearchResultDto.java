@@ -0,0 +1,19 @@
+package com.nd.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+
+import java.util.Map;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetSearchResultDto {
+
+    private Page<ProductDto> products;
+
+    // facet -> value -> number of listings, counted with the other facets' filters applied
+    private Map<String, Map<String, Integer>> facets;
+}
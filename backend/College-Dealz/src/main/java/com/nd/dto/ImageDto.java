@@ -30,4 +30,9 @@ public class ImageDto {
     @Size(max = 500)
     private String s3Url; // S3 URL (optional if used for cloud storage)
 
+    private String thumbnailUrl;
+    private String cardUrl;
+    private String fullUrl;
+    private String blurHash;
+
 }
@@ -0,0 +1,18 @@
+package com.nd.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+// One image of a listing in every size; the renditions fall back to the original until they have been built
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageRenditionsDto {
+
+    private String originalUrl;
+    private String thumbnailUrl;
+    private String cardUrl;
+    private String fullUrl;
+    private String blurHash;
+}
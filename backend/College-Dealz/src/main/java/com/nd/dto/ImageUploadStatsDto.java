@@ -0,0 +1,21 @@
+package com.nd.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageUploadStatsDto {
+
+    private long uploads;
+    private long failures;
+    private long cancelled;
+    // uploads whose bytes were already stored, so no PUT was made
+    private long deduplicated;
+    private long bytesUploaded;
+    private double averageMillis;
+    private long maxMillis;
+    private long lastMillis;
+}
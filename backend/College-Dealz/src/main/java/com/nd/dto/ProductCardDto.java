@@ -0,0 +1,36 @@
+package com.nd.dto;
+
+import com.nd.enums.Category;
+import com.nd.enums.Condition;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+// Read-only row for product lists, filled by a single constructor query (see ProductCardRepoImpl)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductCardDto {
+
+    private Integer id;
+    private String name;
+    private BigDecimal price;
+    private Condition condition;
+    private Category category;
+    private Integer monthsOld;
+    private Instant postDate;
+    private Integer sellerId;
+    private String sellerName;
+    private Integer universityId;
+    private String coverImageUrl;
+    private Long imageCount;
+    private Long viewCount;
+    private String coverThumbnailUrl;
+    private String coverCardUrl;
+    private String coverBlurHash;
+}
@@ -48,6 +48,8 @@ public class ProductDto {
 
     private Instant postDate;
 
+    private Instant expiresAt;
+
     private Chat chat;
 
     private List<MultipartFile> images;
@@ -55,6 +57,19 @@ public class ProductDto {
     private List<String> removeImagesUrls;
 
     private List<String> imageUrls;
+
+    // Same order as imageUrls, with the thumbnail, card and full size of each
+    private List<ImageRenditionsDto> imageRenditions;
+
+    // Set on list responses, which only carry the cover image
+    private String coverImageUrl;
+    private String coverThumbnailUrl;
+    private String coverCardUrl;
+    // BlurHash of the cover, for painting the card before the image arrives; null until computed
+    private String coverBlurHash;
+    private Long imageCount;
+    // Only on the seller's own listings; everywhere else it is read from /{productId}/views
+    private Long viewCount;
     private boolean isWishlisted = false;
 
 }
@@ -0,0 +1,44 @@
+package com.nd.dto;
+
+import com.nd.entities.Product;
+import com.nd.enums.Category;
+import com.nd.enums.Condition;
+import com.nd.enums.ProductStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+// Detached copy of the product columns the in-memory indexes work from
+@Getter
+@AllArgsConstructor
+public class ProductSnapshot {
+
+    private final Integer id;
+    private final Integer universityId;
+    private final Integer sellerId;
+    private final String name;
+    private final String description;
+    private final Category category;
+    private final Condition condition;
+    private final BigDecimal price;
+    private final Integer monthsOld;
+    private final Instant postDate;
+    private final ProductStatus status;
+
+    public static ProductSnapshot of(Product product) {
+        return new ProductSnapshot(
+                product.getId(),
+                product.getUniversity().getId(),
+                product.getSeller().getId(),
+                product.getName(),
+                product.getDescription(),
+                product.getCategory(),
+                product.getCondition(),
+                product.getPrice(),
+                product.getMonthsOld(),
+                product.getPostDate(),
+                product.getStatus());
+    }
+}
@@ -1,5 +1,7 @@
 package com.nd.dto;
 
+import com.nd.service.PersonalizationService;
+import com.nd.service.TrendingService;
 import lombok.Data;
 
 import java.math.BigDecimal;
@@ -14,4 +16,23 @@ public class ProductSortFilterRequest {
     private String category;
     private BigDecimal minPrice;
     private BigDecimal maxPrice;
+    private String condition;  // e.g., "LIKE_NEW"
+    private Integer monthsOld; // listings at most this many months old
+    private String status;     // e.g., "AVAILABLE"
+    private String searchTerm; // matched against name and description
+    private String mode;       // "offset" (default) or "cursor"
+    private String cursor;     // nextCursor from the previous cursor page
+
+    // "trending" is ranked in memory and not a column, so it does not go through ProductSortField
+    public boolean isTrendingSort() {
+        return TrendingService.SORT_FIELD.equalsIgnoreCase(sortField);
+    }
+
+    public boolean isForYouSort() {
+        return PersonalizationService.SORT_FIELD.equalsIgnoreCase(sortField);
+    }
+
+    public boolean isCursorMode() {
+        return "cursor".equalsIgnoreCase(mode) || (cursor != null && !cursor.isEmpty());
+    }
 }
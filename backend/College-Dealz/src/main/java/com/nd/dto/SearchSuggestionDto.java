@@ -0,0 +1,24 @@
+package com.nd.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+// Returned instead of an empty result when the search term looks misspelled
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchSuggestionDto {
+
+    private String searchTerm;
+
+    // the corrected query the products below were found with
+    private String didYouMean;
+
+    private List<String> suggestions;
+
+    private Page<ProductDto> products;
+}
@@ -0,0 +1,14 @@
+package com.nd.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Pre-rendered responses for a shared product link, built once per product version
+@Getter
+@AllArgsConstructor
+public class SharedProductSnapshot {
+
+    private final byte[] json;
+    private final byte[] html;
+    private final String eTag;
+}
@@ -6,6 +6,8 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -13,7 +15,11 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @Entity
-@Table(name = "archived_products")
+@Table(name = "archived_products", indexes = {
+        // archive_partition is the partition key: reports read one month of one campus at a time
+        @Index(name = "idx_archived_partition_university", columnList = "archive_partition, universityId"),
+        @Index(name = "idx_archived_seller", columnList = "sellerId")
+})
 public class ArchivedProducts {
 
     @Id
@@ -47,8 +53,10 @@ public class ArchivedProducts {
     @Column(nullable = false)
     private LocalDateTime statusChangeDate;
 
+    // VARCHAR like products.status, so EXPIRED and later statuses fit an existing table (see StatusColumnMigration)
     @Enumerated(EnumType.STRING)
-    @Column(nullable = false)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(nullable = false, length = 32)
     private ProductStatus status;
 
     @Column
@@ -63,6 +71,14 @@ public class ArchivedProducts {
     @Column(nullable = false)
     private int universityId;
 
+    // yyyyMM of statusChangeDate
+    @Column(name = "archive_partition")
+    private Integer archivePartition;
+
+    // id the listing had in products, which the archive row does not reuse
+    @Column(name = "original_product_id")
+    private Integer originalProductId;
+
     @CreationTimestamp
     @Column(name = "created_at")
     private Instant createdAt;
@@ -14,7 +14,9 @@ import java.time.Instant;
 @Getter
 @Setter
 @Entity
-@Table(name = "image")
+@Table(name = "image", indexes = {
+        @Index(name = "idx_image_s3_url", columnList = "s3_url")
+})
 public class Image {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -44,6 +46,37 @@ public class Image {
     @Column(name = "s3_url", length = 500)
     private String s3Url;
 
+    // Renditions (see Rendition), filled in asynchronously after upload; null until then
+    @Size(max = 500)
+    @Column(name = "thumbnail_url", length = 500)
+    private String thumbnailUrl;
+
+    @Size(max = 500)
+    @Column(name = "card_url", length = 500)
+    private String cardUrl;
+
+    @Size(max = 500)
+    @Column(name = "full_url", length = 500)
+    private String fullUrl;
+
+    // BlurHash of the image, small enough to ship inline with every card
+    @Size(max = 64)
+    @Column(name = "blur_hash", length = 64)
+    private String blurHash;
+
+    // Set when no placeholder could be computed from the thumbnail, so the backfill does not pick it up again
+    @Column(name = "placeholder_failed_at")
+    private Instant placeholderFailedAt;
+
+    // Last failed attempt at building the renditions; the sweep waits a while before retrying the image
+    @Column(name = "renditions_failed_at")
+    private Instant renditionsFailedAt;
+
+    // Failed attempts so far; the sweep gives up at images.renditions.max-attempts, at once for undecodable files
+    @ColumnDefault("0")
+    @Column(name = "rendition_attempts", nullable = false)
+    private Integer renditionAttempts = 0;
+
     @ColumnDefault("CURRENT_TIMESTAMP")
     @Column(name = "created_at")
     private Instant createdAt;
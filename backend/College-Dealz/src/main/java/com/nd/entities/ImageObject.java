@@ -0,0 +1,37 @@
+package com.nd.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+// One row per content-addressed S3 object; refCount is how many image rows point at it (see S3ImageService)
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "image_objects", indexes = {
+        @Index(name = "idx_image_objects_ref_count", columnList = "ref_count")
+})
+public class ImageObject {
+
+    // SHA-256 of the bytes, hex encoded
+    @Id
+    @Column(name = "object_key", length = 64)
+    private String objectKey;
+
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount;
+
+    // false until the first PUT of these bytes has completed
+    @Column(name = "uploaded", nullable = false)
+    private Boolean uploaded;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "released_at")
+    private Instant releasedAt;
+}
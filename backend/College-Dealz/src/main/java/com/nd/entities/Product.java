@@ -12,6 +12,8 @@ import lombok.Setter;
 import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.Fetch;
 import org.hibernate.annotations.FetchMode;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -21,7 +23,18 @@ import java.util.List;
 @Getter
 @Setter
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        // feed queries always filter on university_id first, then range-scan the sort column
+        @Index(name = "idx_products_university_price", columnList = "university_id, price"),
+        @Index(name = "idx_products_university_post_date", columnList = "university_id, post_date"),
+        @Index(name = "idx_products_university_name", columnList = "university_id, name"),
+        @Index(name = "idx_products_university_category_price", columnList = "university_id, category, price"),
+        @Index(name = "idx_products_university_category_post_date", columnList = "university_id, category, post_date"),
+        // the archival job scans closed listings oldest first
+        @Index(name = "idx_products_status_changed", columnList = "status, status_changed_at"),
+        // reminder and expiry scans range over this instead of the whole table
+        @Index(name = "idx_products_status_expires", columnList = "status, expires_at")
+})
 public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -68,9 +81,11 @@ public class Product {
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Chat> chats = new ArrayList<>();
 
+    // VARCHAR rather than a native enum column, so new statuses need no ALTER (see StatusColumnMigration)
     @NotNull
     @Enumerated(EnumType.STRING)
-    @Column(name = "status", nullable = false)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "status", nullable = false, length = 32)
     private ProductStatus status=ProductStatus.AVAILABLE;
 
     @NotNull
@@ -92,6 +107,39 @@ public class Product {
     @Column(name = "updated_at")
     private Instant updatedAt;
 
+    // only ever incremented in bulk by ViewCountServiceImpl, never written through the entity
+    @ColumnDefault("0")
+    @Column(name = "view_count", nullable = false, insertable = false, updatable = false)
+    private Long viewCount = 0L;
+
+    @ColumnDefault("0")
+    @Column(name = "relist_count", nullable = false)
+    private Integer relistCount = 0;
+
+    // Set when the listing is sold or removed, read by the archival job when it moves the row out
+    @Column(name = "status_changed_at")
+    private Instant statusChangedAt;
+
+    // Set when the archival job could not move this closed row; it is skipped until the column is cleared
+    @Column(name = "archive_failed_at")
+    private Instant archiveFailedAt;
+
+    @Column(name = "final_sold_price", precision = 10, scale = 2)
+    private BigDecimal finalSoldPrice;
+
+    @Column(name = "reason_for_removal")
+    private String reasonForRemoval;
+
+    @Column(name = "sold_to_college_student")
+    private Boolean soldToCollegeStudent;
+
+    // Set from postDate by ListingExpiryService; the listing is closed as EXPIRED once it passes
+    @Column(name = "expires_at")
+    private Instant expiresAt;
+
+    @Column(name = "expiry_reminder_sent_at")
+    private Instant expiryReminderSentAt;
+
 
 
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.nd.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+// One row per relist; keeps plain ids like ArchivedProducts so the history outlives the listing
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "product_relist_history", indexes = {
+        @Index(name = "idx_relist_history_product", columnList = "product_id")
+})
+public class ProductRelistHistory {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "product_id", nullable = false)
+    private Integer productId;
+
+    @Column(name = "seller_id", nullable = false)
+    private Integer sellerId;
+
+    // post date the listing had before this relist
+    @Column(name = "previous_post_date")
+    private Instant previousPostDate;
+
+    @Column(name = "relisted_at", nullable = false)
+    private Instant relistedAt;
+
+    @Column(name = "relist_number", nullable = false)
+    private Integer relistNumber;
+}
@@ -0,0 +1,65 @@
+package com.nd.entities;
+
+import com.nd.enums.PurgeJobStatus;
+import com.nd.enums.PurgeTarget;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+// One background deletion of a product or a user and everything hanging off it, with its progress
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "purge_jobs", indexes = {
+        @Index(name = "idx_purge_jobs_status", columnList = "status")
+})
+public class PurgeJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "target", nullable = false, length = 20)
+    private PurgeTarget target;
+
+    @Column(name = "target_id", nullable = false)
+    private Integer targetId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private PurgeJobStatus status = PurgeJobStatus.QUEUED;
+
+    // table the job is deleting from right now
+    @Column(name = "current_step", length = 50)
+    private String currentStep;
+
+    @Column(name = "rows_deleted", nullable = false)
+    private long rowsDeleted;
+
+    @Column(name = "s3_objects_deleted", nullable = false)
+    private long s3ObjectsDeleted;
+
+    @Column(name = "error", length = 1000)
+    private String error;
+
+    // failed runs so far; a FAILED job is run again at nextAttemptAt until purge.max-attempts is reached
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at")
+    private Instant nextAttemptAt;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "started_at")
+    private Instant startedAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+}
@@ -74,6 +74,10 @@ public class User implements UserDetails {
     @Column(name = "provider_user_id")
     private String providerUserId;
 
+    // set when the account is queued for purging; the account can no longer sign in
+    @Column(name = "deleted", nullable = false)
+    private boolean deleted = false;
+
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "user_roles",
@@ -126,6 +130,11 @@ public class User implements UserDetails {
         return true;
     }
 
+    @Override
+    public boolean isEnabled() {
+        return !deleted;
+    }
+
     @Override
     public String getPassword() {
         return password;
@@ -0,0 +1,60 @@
+package com.nd.enums;
+
+import com.nd.dto.ProductCardDto;
+import com.nd.exceptions.ApiException;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.function.Function;
+
+public enum ProductSortField {
+
+    PRICE("price", ProductCardDto::getPrice, BigDecimal::new),
+    POST_DATE("postDate", ProductCardDto::getPostDate, Instant::parse),
+    NAME("name", ProductCardDto::getName, value -> value);
+
+    private final String property;
+    private final Function<ProductCardDto, Comparable<?>> extractor;
+    private final Function<String, Comparable<?>> parser;
+
+    ProductSortField(String property,
+                     Function<ProductCardDto, Comparable<?>> extractor,
+                     Function<String, Comparable<?>> parser) {
+        this.property = property;
+        this.extractor = extractor;
+        this.parser = parser;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    // Value of this field on the given product, possibly null
+    public Comparable<?> valueOf(ProductCardDto product) {
+        return extractor.apply(product);
+    }
+
+    // Writes a non-null value the way a cursor stores it
+    public String format(Comparable<?> value) {
+        return value.toString();
+    }
+
+    // Reads a value written by format() back into the type the column is compared with
+    public Comparable<?> parse(String value) {
+        return parser.apply(value);
+    }
+
+    // Resolves the sortField sent by the client; price stays the default like before.
+    // Only these fields may be sorted on: each one leads a (university_id, field) index on products.
+    public static ProductSortField from(String sortField) {
+        if (sortField == null || sortField.isEmpty()) {
+            return PRICE;
+        }
+        for (ProductSortField field : values()) {
+            if (field.property.equalsIgnoreCase(sortField) || field.name().equalsIgnoreCase(sortField)) {
+                return field;
+            }
+        }
+        throw new ApiException("Sorting by '" + sortField + "' is not supported");
+    }
+}
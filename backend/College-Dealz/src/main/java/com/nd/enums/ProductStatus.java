@@ -1,10 +1,19 @@
 package com.nd.enums;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum ProductStatus {
      SOLD_VIA_PLATFORM,
     SOLD_OUTSIDE_PLATFORM,
     REMOVED_BY_USER,
     REMOVED_BY_ADMIN,
     RELISTED,
-    AVAILABLE
+    AVAILABLE,
+    EXPIRED,
+    // waiting for PurgeService to delete the row and its children
+    DELETED;
+
+    // Listings in these states are on the feed; any other product row is waiting to be archived
+    public static final Set<ProductStatus> LIVE = EnumSet.of(AVAILABLE, RELISTED);
 }
@@ -0,0 +1,8 @@
+package com.nd.enums;
+
+public enum PurgeJobStatus {
+    QUEUED,
+    RUNNING,
+    DONE,
+    FAILED
+}
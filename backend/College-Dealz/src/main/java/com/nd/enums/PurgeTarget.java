@@ -0,0 +1,6 @@
+package com.nd.enums;
+
+public enum PurgeTarget {
+    PRODUCT,
+    USER
+}
@@ -0,0 +1,24 @@
+package com.nd.enums;
+
+// Sizes generated for every uploaded image; the edge is the longest side in pixels
+public enum Rendition {
+    THUMBNAIL("thumb", 200),
+    CARD("card", 480),
+    FULL("full", 1600);
+
+    private final String suffix;
+    private final int maxEdge;
+
+    Rendition(String suffix, int maxEdge) {
+        this.suffix = suffix;
+        this.maxEdge = maxEdge;
+    }
+
+    public String getSuffix() {
+        return suffix;
+    }
+
+    public int getMaxEdge() {
+        return maxEdge;
+    }
+}
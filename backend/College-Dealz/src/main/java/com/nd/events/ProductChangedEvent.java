@@ -0,0 +1,32 @@
+package com.nd.events;
+
+import com.nd.dto.ProductSnapshot;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Published by ProductServiceImpl whenever a listing is added, edited or leaves the feed
+@Getter
+@AllArgsConstructor
+public class ProductChangedEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        RELISTED,
+        REMOVED,
+        SOLD,
+        EXPIRED
+    }
+
+    private final Type type;
+    private final ProductSnapshot product;
+
+    // true when the listing is (still) visible on the campus feed after this change
+    public boolean isLive() {
+        return type == Type.CREATED || type == Type.UPDATED || type == Type.RELISTED;
+    }
+
+    public int getUniversityId() {
+        return product.getUniversityId();
+    }
+}
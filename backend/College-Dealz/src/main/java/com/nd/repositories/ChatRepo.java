@@ -3,6 +3,8 @@ package com.nd.repositories;
 import com.nd.entities.Chat;
 import com.nd.entities.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -27,4 +29,8 @@ public interface ChatRepo extends JpaRepository<Chat, Integer> {
     List<Chat> findByProduct(Product product);
 
     Optional<Chat> getChatById(int chatId);
+
+    // category, price of products the user messaged someone else about
+    @Query("SELECT c.product.category, c.product.price FROM Chat c WHERE c.sender.id = :userId AND c.product.seller.id <> :userId")
+    List<Object[]> findCategoryAndPriceOfChatsStartedBy(@Param("userId") int userId);
 }
\ No newline at end of file
@@ -2,6 +2,8 @@ package com.nd.repositories;
 
 import com.nd.entities.Image;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,5 +12,9 @@ import java.util.List;
 public interface ImageRepo extends JpaRepository<Image, Integer> {
     List<Image> findByProductId(Integer productId); // Fetch all images for a product
 
+    // S3 references held by the images of these products, read before the rows go
+    @Query("SELECT i.s3Url FROM Image i WHERE i.product.id IN :productIds AND i.s3Url IS NOT NULL")
+    List<String> findS3UrlsByProductIds(@Param("productIds") List<Integer> productIds);
+
 
 }
@@ -6,9 +6,15 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.util.List;
 
 public interface MessageRepo extends JpaRepository<Message, Long> {
     @Query("SELECT m FROM Message m WHERE m.chat.id = :chatId ORDER BY m.createdAt ASC")
     List<Message> findByChatIdOrderByCreatedAtAsc(@Param("chatId") int chatId);
+
+    // product id, day of the chat's first message; chats carry no timestamp of their own
+    @Query("SELECT m.chat.product.id, MIN(m.createdAt) FROM Message m " +
+            "GROUP BY m.chat.id, m.chat.product.id HAVING MIN(m.createdAt) >= :since")
+    List<Object[]> findChatStartsSince(@Param("since") LocalDate since);
 }
@@ -0,0 +1,22 @@
+package com.nd.repositories;
+
+import com.nd.dto.ProductCardDto;
+import com.nd.entities.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+
+// Card queries select only the columns a product list shows, joined to the seller, in one statement
+public interface ProductCardRepo {
+
+    Page<ProductCardDto> findCards(Specification<Product> spec, Pageable pageable);
+
+    List<ProductCardDto> findCards(Specification<Product> spec, Sort sort, int limit);
+
+    // Rows come back in no particular order; callers that ranked the ids re-order them
+    List<ProductCardDto> findCardsByIds(Collection<Integer> productIds);
+}
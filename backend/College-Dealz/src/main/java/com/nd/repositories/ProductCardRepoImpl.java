@@ -0,0 +1,116 @@
+package com.nd.repositories;
+
+import com.nd.dto.ProductCardDto;
+import com.nd.entities.Image;
+import com.nd.entities.Product;
+import com.nd.entities.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.Collection;
+import java.util.List;
+
+public class ProductCardRepoImpl implements ProductCardRepo {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<ProductCardDto> findCards(Specification<Product> spec, Pageable pageable) {
+        TypedQuery<ProductCardDto> query = cardQuery(spec, pageable.getSort());
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        // the count only runs when the page alone cannot tell the total
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(spec));
+    }
+
+    @Override
+    public List<ProductCardDto> findCards(Specification<Product> spec, Sort sort, int limit) {
+        return cardQuery(spec, sort).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<ProductCardDto> findCardsByIds(Collection<Integer> productIds) {
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+        Specification<Product> byIds = (root, query, cb) -> root.get("id").in(productIds);
+        return cardQuery(byIds, Sort.unsorted()).getResultList();
+    }
+
+    private TypedQuery<ProductCardDto> cardQuery(Specification<Product> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductCardDto> query = cb.createQuery(ProductCardDto.class);
+        Root<Product> product = query.from(Product.class);
+        Join<Product, User> seller = product.join("seller");
+
+        // cover = the first image uploaded for the product, joined once so its url, renditions and
+        // placeholder come from the same row; every column is null when the product has no images
+        Subquery<Integer> firstImageId = query.subquery(Integer.class);
+        Root<Image> first = firstImageId.from(Image.class);
+        firstImageId.select(cb.min(first.get("id")))
+                .where(cb.equal(first.get("product"), product));
+        Join<Product, Image> cover = product.join("images", JoinType.LEFT);
+        cover.on(cb.equal(cover.get("id"), firstImageId));
+
+        Subquery<Long> imageCount = query.subquery(Long.class);
+        Root<Image> counted = imageCount.from(Image.class);
+        imageCount.select(cb.count(counted))
+                .where(cb.equal(counted.get("product"), product));
+
+        query.select(cb.construct(ProductCardDto.class,
+                product.get("id"),
+                product.get("name"),
+                product.get("price"),
+                product.get("condition"),
+                product.get("category"),
+                product.get("monthsOld"),
+                product.get("postDate"),
+                seller.get("id"),
+                seller.get("name"),
+                product.get("university").get("id"),
+                cover.get("s3Url"),
+                imageCount,
+                product.get("viewCount"),
+                cover.get("thumbnailUrl"),
+                cover.get("cardUrl"),
+                cover.get("blurHash")));
+
+        Predicate predicate = spec == null ? null : spec.toPredicate(product, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, product, cb));
+        }
+        return entityManager.createQuery(query);
+    }
+
+    private long count(Specification<Product> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> product = query.from(Product.class);
+        query.select(cb.count(product));
+        Predicate predicate = spec == null ? null : spec.toPredicate(product, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
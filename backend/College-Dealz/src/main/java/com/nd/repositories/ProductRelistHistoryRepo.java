@@ -0,0 +1,13 @@
+package com.nd.repositories;
+
+import com.nd.entities.ProductRelistHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProductRelistHistoryRepo extends JpaRepository<ProductRelistHistory, Integer> {
+
+    List<ProductRelistHistory> findByProductIdOrderByRelistedAtDesc(Integer productId);
+}
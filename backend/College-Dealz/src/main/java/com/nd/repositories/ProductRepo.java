@@ -1,22 +1,30 @@
 package com.nd.repositories;
 
+import com.nd.dto.ProductSnapshot;
 import com.nd.entities.Chat;
 import com.nd.entities.Product;
 import com.nd.entities.University;
-import com.nd.enums.Category;
+import com.nd.enums.ProductStatus;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface ProductRepo extends JpaRepository<Product, Integer>, JpaSpecificationExecutor<Product> {
+public interface ProductRepo extends JpaRepository<Product, Integer>, JpaSpecificationExecutor<Product>, ProductCardRepo {
 
+    // Sold and removed rows stay in products only until the archival job moves them out
+    String LIVE = " AND p.status IN (com.nd.enums.ProductStatus.AVAILABLE, com.nd.enums.ProductStatus.RELISTED)";
 
     @Override
     List<Product> findAllById(Iterable<Integer> integers);
@@ -27,25 +35,119 @@ public interface ProductRepo extends JpaRepository<Product, Integer>, JpaSpecifi
     @Query("SELECT p FROM Product p WHERE p.category = :category")
     List<Product> findByCategory(String category);
 
-    @Query("SELECT p FROM Product p WHERE p.university.id = :universityId")
+    @Query("SELECT p FROM Product p WHERE p.university.id = :universityId" + LIVE)
     Page<Product> findByUniversityId(@Param("universityId") int universityId, Pageable pageable);
 
 
-    Page<Product> findByUniversityIdAndCategory(int universityId, Category category, Pageable pageable);
-
-    Page<Product> findByUniversityIdAndPriceLessThanEqualAndPriceGreaterThanEqual(int universityId,@NotNull BigDecimal priceIsLessThan, @NotNull BigDecimal priceIsGreaterThan,Pageable pageable);
-
-    Page<Product> findByUniversityIdAndNameContainingOrDescriptionContaining(int universityId, String name, String description, Pageable pageable);
-
-    @Query("SELECT p FROM Product p WHERE p.seller.id = :sellerId")
+    @Query("SELECT p FROM Product p WHERE p.seller.id = :sellerId" + LIVE)
     List<Product> findBySellerId(Integer sellerId);
 
-    @Query("SELECT p FROM Product p WHERE p.university.id = :universityId")
+    @Query("SELECT p FROM Product p WHERE p.university.id = :universityId" + LIVE)
     List<Product> findByUniversityId(Integer universityId);
 
 
     Product getProductById(int productId);
 
+    // Keyset scan used to load the in-memory indexes without holding the whole table at once
+    @Query("SELECT new com.nd.dto.ProductSnapshot(p.id, p.university.id, p.seller.id, p.name, p.description, " +
+            "p.category, p.condition, p.price, p.monthsOld, p.postDate, p.status) " +
+            "FROM Product p WHERE p.id > :afterId" + LIVE + " ORDER BY p.id")
+    List<ProductSnapshot> findSnapshotsAfter(@Param("afterId") int afterId, Pageable pageable);
+
+    @Query("SELECT new com.nd.dto.ProductSnapshot(p.id, p.university.id, p.seller.id, p.name, p.description, " +
+            "p.category, p.condition, p.price, p.monthsOld, p.postDate, p.status) " +
+            "FROM Product p WHERE p.id = :productId")
+    Optional<ProductSnapshot> findSnapshotById(@Param("productId") int productId);
+
+    @Query("SELECT p.relistCount FROM Product p WHERE p.id = :productId")
+    Optional<Integer> findRelistCountById(@Param("productId") int productId);
+
+    // Relisting only moves the row's status and dates; images, chats and wishlists stay attached
+    @Modifying
+    @Query("UPDATE Product p SET p.status = com.nd.enums.ProductStatus.RELISTED, p.postDate = :now, " +
+            "p.updatedAt = :now, p.relistCount = p.relistCount + 1, p.expiresAt = :expiresAt, " +
+            "p.expiryReminderSentAt = null WHERE p.id = :productId" + LIVE)
+    int relist(@Param("productId") int productId, @Param("now") Instant now, @Param("expiresAt") Instant expiresAt);
+
+    // The whole request-time cost of selling or removing a listing; 0 when it was already closed
+    @Modifying
+    @Query("UPDATE Product p SET p.status = :status, p.statusChangedAt = :changedAt, p.updatedAt = :now, " +
+            "p.finalSoldPrice = :finalSoldPrice, p.reasonForRemoval = :reason, " +
+            "p.soldToCollegeStudent = :soldToCollegeStudent WHERE p.id = :productId" + LIVE)
+    int close(@Param("productId") int productId,
+              @Param("status") ProductStatus status,
+              @Param("changedAt") Instant changedAt,
+              @Param("now") Instant now,
+              @Param("finalSoldPrice") BigDecimal finalSoldPrice,
+              @Param("reason") String reason,
+              @Param("soldToCollegeStudent") Boolean soldToCollegeStudent);
+
+    // deleted rows belong to PurgeService, not to the archive; rows that failed to archive are left for an operator
+    @Query("SELECT p FROM Product p WHERE p.status NOT IN (com.nd.enums.ProductStatus.AVAILABLE, " +
+            "com.nd.enums.ProductStatus.RELISTED, com.nd.enums.ProductStatus.DELETED) AND p.archiveFailedAt IS NULL " +
+            "ORDER BY p.statusChangedAt, p.id")
+    List<Product> findClosed(Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.archiveFailedAt = :now WHERE p.id = :productId")
+    int markArchiveFailed(@Param("productId") int productId, @Param("now") Instant now);
+
+    @Query("SELECT new com.nd.dto.ProductSnapshot(p.id, p.university.id, p.seller.id, p.name, p.description, " +
+            "p.category, p.condition, p.price, p.monthsOld, p.postDate, p.status) " +
+            "FROM Product p WHERE p.seller.id = :sellerId" + LIVE)
+    List<ProductSnapshot> findLiveSnapshotsBySellerId(@Param("sellerId") int sellerId);
+
+    // Listings due before :due, soonest first; both scans walk idx_products_status_expires
+    @Query("SELECT new com.nd.dto.ProductSnapshot(p.id, p.university.id, p.seller.id, p.name, p.description, " +
+            "p.category, p.condition, p.price, p.monthsOld, p.postDate, p.status) " +
+            "FROM Product p WHERE p.expiresAt > :now AND p.expiresAt <= :due AND p.expiryReminderSentAt IS NULL" + LIVE +
+            " ORDER BY p.expiresAt")
+    List<ProductSnapshot> findNeedingExpiryReminder(@Param("now") Instant now, @Param("due") Instant due, Pageable pageable);
+
+    @Query("SELECT new com.nd.dto.ProductSnapshot(p.id, p.university.id, p.seller.id, p.name, p.description, " +
+            "p.category, p.condition, p.price, p.monthsOld, p.postDate, p.status) " +
+            "FROM Product p WHERE p.expiresAt <= :now" + LIVE + " ORDER BY p.expiresAt")
+    List<ProductSnapshot> findExpired(@Param("now") Instant now, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.expiryReminderSentAt = :now WHERE p.id IN :productIds")
+    int markExpiryReminderSent(@Param("productIds") Collection<Integer> productIds, @Param("now") Instant now);
+
+    // Expired listings are closed like sold or removed ones and reach archived_products through the archival job
+    @Modifying
+    @Query("UPDATE Product p SET p.status = com.nd.enums.ProductStatus.EXPIRED, p.statusChangedAt = :now, " +
+            "p.updatedAt = :now, p.reasonForRemoval = 'Expired' WHERE p.id IN :productIds" + LIVE)
+    int expire(@Param("productIds") Collection<Integer> productIds, @Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.status = com.nd.enums.ProductStatus.DELETED, p.statusChangedAt = :now, " +
+            "p.updatedAt = :now WHERE p.id = :productId AND p.status <> com.nd.enums.ProductStatus.DELETED")
+    int markDeleted(@Param("productId") int productId, @Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.status = com.nd.enums.ProductStatus.DELETED, p.statusChangedAt = :now, " +
+            "p.updatedAt = :now WHERE p.seller.id = :sellerId AND p.status <> com.nd.enums.ProductStatus.DELETED")
+    int markDeletedBySellerId(@Param("sellerId") int sellerId, @Param("now") Instant now);
+
+    // Only updated_at, so a status change committed since the caller loaded the product is not written back
+    @Transactional
+    @Modifying
+    @Query("UPDATE Product p SET p.updatedAt = :now WHERE p.id = :productId")
+    int touch(@Param("productId") int productId, @Param("now") Instant now);
+
+    // the product page lookups below only see live listings; a closed one is a 404 like an archived one
+    @Query("SELECT p.updatedAt FROM Product p WHERE p.id = :productId" + LIVE)
+    Optional<Instant> findUpdatedAtById(@Param("productId") int productId);
+
+    @Query("SELECT p.viewCount FROM Product p WHERE p.id = :productId" + LIVE)
+    Optional<Long> findViewCountById(@Param("productId") int productId);
+
+    @Query("SELECT p.seller.id FROM Product p WHERE p.id = :productId" + LIVE)
+    Optional<Integer> findSellerIdById(@Param("productId") int productId);
+
+    @Query("SELECT p.university.id FROM Product p GROUP BY p.university.id ORDER BY COUNT(p) DESC")
+    List<Integer> findUniversityIdsByListingCount(Pageable pageable);
+
     @Query("SELECT c FROM Chat c WHERE c.product.id = :productId")
     Chat getChatByProductId(@Param("productId") int productId);
 
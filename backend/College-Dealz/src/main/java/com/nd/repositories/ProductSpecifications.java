@@ -0,0 +1,155 @@
+package com.nd.repositories;
+
+import com.nd.dto.ProductSortFilterRequest;
+import com.nd.entities.Product;
+import com.nd.entities.Wishlist;
+import com.nd.enums.Category;
+import com.nd.enums.Condition;
+import com.nd.enums.ProductSortField;
+import com.nd.enums.ProductStatus;
+import com.nd.exceptions.ApiException;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    /**
+     * Builds the feed query for one university out of every filter present on the request.
+     * university_id is always the leading predicate so the composite indexes on Product apply;
+     * absent filters simply add nothing.
+     */
+    public static Specification<Product> forFeed(int universityId, ProductSortFilterRequest request) {
+        Specification<Product> spec = inUniversity(universityId).and(isLive());
+
+        if (hasText(request.getCategory())) {
+            spec = spec.and(hasCategory(parse(Category.class, request.getCategory(), "category")));
+        }
+        if (hasText(request.getCondition())) {
+            spec = spec.and(hasCondition(parse(Condition.class, request.getCondition(), "condition")));
+        }
+        if (hasText(request.getStatus())) {
+            spec = spec.and(hasStatus(parse(ProductStatus.class, request.getStatus(), "status")));
+        }
+        if (request.getMinPrice() != null) {
+            spec = spec.and(priceAtLeast(request.getMinPrice()));
+        }
+        // a max price of 0 has always meant "no upper bound" for the feed
+        if (request.getMaxPrice() != null && request.getMaxPrice().compareTo(BigDecimal.ZERO) != 0) {
+            spec = spec.and(priceAtMost(request.getMaxPrice()));
+        }
+        if (request.getMonthsOld() != null) {
+            spec = spec.and(atMostMonthsOld(request.getMonthsOld()));
+        }
+        if (hasText(request.getSearchTerm())) {
+            spec = spec.and(matchesTerm(request.getSearchTerm().trim()));
+        }
+        return spec;
+    }
+
+    public static Specification<Product> inUniversity(int universityId) {
+        return (root, query, cb) -> cb.equal(root.get("university").get("id"), universityId);
+    }
+
+    public static Specification<Product> soldBy(int sellerId) {
+        return (root, query, cb) -> cb.equal(root.get("seller").get("id"), sellerId);
+    }
+
+    public static Specification<Product> wishlistedBy(int userId) {
+        return (root, query, cb) -> {
+            Subquery<Integer> wishlisted = query.subquery(Integer.class);
+            Root<Wishlist> wishlist = wishlisted.from(Wishlist.class);
+            wishlisted.select(wishlist.get("product").get("id"))
+                    .where(cb.equal(wishlist.get("user").get("id"), userId));
+            return root.get("id").in(wishlisted);
+        };
+    }
+
+    public static Specification<Product> hasCategory(Category category) {
+        return (root, query, cb) -> cb.equal(root.get("category"), category);
+    }
+
+    public static Specification<Product> hasCondition(Condition condition) {
+        return (root, query, cb) -> cb.equal(root.get("condition"), condition);
+    }
+
+    // Closed listings wait in products for the archival job and must never reach a list
+    public static Specification<Product> isLive() {
+        return (root, query, cb) -> root.get("status").in(ProductStatus.LIVE);
+    }
+
+    public static Specification<Product> hasStatus(ProductStatus status) {
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Product> priceAtLeast(BigDecimal minPrice) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), minPrice);
+    }
+
+    public static Specification<Product> priceAtMost(BigDecimal maxPrice) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), maxPrice);
+    }
+
+    public static Specification<Product> atMostMonthsOld(int monthsOld) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("monthsOld"), monthsOld);
+    }
+
+    // Case-insensitive match on name or description, always inside the university predicate
+    public static Specification<Product> matchesTerm(String term) {
+        String pattern = "%" + escapeLike(term.toLowerCase()) + "%";
+        return (root, query, cb) -> cb.or(
+                cb.like(cb.lower(root.get("name")), pattern, '\\'),
+                cb.like(cb.lower(root.get("description")), pattern, '\\'));
+    }
+
+    // Keyset predicate: rows strictly after (value, id) in the given ordering. NULLs follow MySQL's ORDER BY,
+    // where NULL sorts lowest: first when ascending, last when descending.
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Specification<Product> after(ProductSortField sortField, Sort.Direction direction, Comparable<?> value, int id) {
+        Comparable lastValue = value;
+        return (root, query, cb) -> {
+            Expression<Comparable> field = root.get(sortField.getProperty());
+            Expression<Integer> productId = root.get("id");
+            if (direction == Sort.Direction.DESC) {
+                if (lastValue == null) {
+                    return cb.and(cb.isNull(field), cb.lessThan(productId, id));
+                }
+                return cb.or(
+                        cb.lessThan(field, lastValue),
+                        cb.and(cb.equal(field, lastValue), cb.lessThan(productId, id)),
+                        cb.isNull(field));
+            }
+            if (lastValue == null) {
+                return cb.or(
+                        cb.isNotNull(field),
+                        cb.and(cb.isNull(field), cb.greaterThan(productId, id)));
+            }
+            return cb.or(
+                    cb.greaterThan(field, lastValue),
+                    cb.and(cb.equal(field, lastValue), cb.greaterThan(productId, id)));
+        };
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String value, String filterName) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase().replace(' ', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new ApiException("Unknown " + filterName + ": " + value);
+        }
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.trim().isEmpty();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
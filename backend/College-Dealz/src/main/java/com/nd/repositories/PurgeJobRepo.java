@@ -0,0 +1,21 @@
+package com.nd.repositories;
+
+import com.nd.entities.PurgeJob;
+import com.nd.enums.PurgeJobStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PurgeJobRepo extends JpaRepository<PurgeJob, Long> {
+
+    List<PurgeJob> findByStatusInOrderById(Collection<PurgeJobStatus> statuses);
+
+    List<PurgeJob> findByStatusAndNextAttemptAtLessThanEqualOrderById(PurgeJobStatus status, Instant now);
+
+    List<PurgeJob> findAllByOrderByIdDesc(Pageable pageable);
+}
@@ -3,7 +3,9 @@ package com.nd.repositories;
 
 import com.nd.entities.Token;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -20,4 +22,8 @@ where t.user.id = :userId and t.loggedOut = false
     Optional<Token> findByAccessToken(String token);
 
     Optional<Token > findByRefreshToken(String token);
+
+    @Modifying
+    @Query("UPDATE Token t SET t.loggedOut = true WHERE t.user.id = :userId")
+    int logOutAllByUser(@Param("userId") Integer userId);
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import com.nd.entities.University;
 import com.nd.entities.User;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -27,9 +28,17 @@ int countByRolesContaining(Role role);
 
     @Query("SELECT u.id FROM User u WHERE u.email = :email")
     Optional<Integer> getUserIdByEmail(@Param("email") String email);
+
+    // user id, university id
+    @Query("SELECT u.id, u.university.id FROM User u WHERE u.email = :email")
+    List<Object[]> findIdAndUniversityIdByEmail(@Param("email") String email);
 @EntityGraph(attributePaths = "roles")
     List<User> findByRolesContaining(Role role);
 
     List<User> findAllByUniversity(University university);
+
+    @Modifying
+    @Query("UPDATE User u SET u.deleted = true WHERE u.id = :userId")
+    int markDeleted(@Param("userId") int userId);
 }
 
@@ -21,4 +21,8 @@ public interface WantlistRepo extends JpaRepository<Wantlist,Integer> {
     void deleteByIdAndUserId(Integer id, Integer userId);
 
     Wantlist getById(Integer id);
+
+    // category, price min, price max
+    @Query("SELECT w.category, w.priceMin, w.priceMax FROM Wantlist w WHERE w.user.id = :userId")
+    List<Object[]> findCategoryAndPriceRangeByUserId(@Param("userId") int userId);
 }
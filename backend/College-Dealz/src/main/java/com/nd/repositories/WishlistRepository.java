@@ -5,7 +5,9 @@ import com.nd.entities.Product;
 import com.nd.entities.Wishlist;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,4 +20,19 @@ public interface WishlistRepository extends JpaRepository<Wishlist, Integer> {
     @Query("SELECT w.product FROM Wishlist w WHERE w.user.id = :userId")
     List<Product> findAllProductsByUserId(Integer userId);
 
+    // category, price of every wishlisted product
+    @Query("SELECT w.product.category, w.product.price FROM Wishlist w WHERE w.user.id = :userId")
+    List<Object[]> findCategoryAndPriceByUserId(@Param("userId") int userId);
+
+    // product id, created at
+    @Query("SELECT w.product.id, w.createdAt FROM Wishlist w WHERE w.createdAt >= :since")
+    List<Object[]> findProductActivitySince(@Param("since") Instant since);
+
+    @Query("SELECT w.product.id FROM Wishlist w WHERE w.user.id = :userId")
+    List<Integer> findProductIdsByUserId(@Param("userId") int userId);
+
+    // user id, product id; grouped by user, newest first
+    @Query("SELECT w.user.id, w.product.id FROM Wishlist w ORDER BY w.user.id, w.createdAt DESC")
+    List<Object[]> findUserProductPairs();
+
 }
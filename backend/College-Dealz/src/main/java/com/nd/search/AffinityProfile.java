@@ -0,0 +1,102 @@
+package com.nd.search;
+
+import com.nd.dto.ProductCardDto;
+import com.nd.enums.Category;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * What one user tends to want: a weight per category and a typical price, taken from the listings they
+ * wishlisted or asked about and from their wantlist. Scores a listing between 0 and 1; a user without
+ * any signals gets plain freshness, i.e. the newest listings first.
+ */
+public class AffinityProfile {
+
+    private static final double CATEGORY_WEIGHT = 0.55;
+    private static final double PRICE_WEIGHT = 0.30;
+    private static final double FRESHNESS_WEIGHT = 0.15;
+    private static final double FRESHNESS_HALF_LIFE_DAYS = 14;
+    // smallest price spread in log space (about +-40%), so one signal does not pin a single price
+    private static final double MIN_LOG_PRICE_SPREAD = 0.35;
+
+    private final Map<Category, Double> categoryAffinity;
+    private final double logPriceMean;
+    private final double logPriceSpread;
+    private final boolean hasPrice;
+    private final Instant builtAt;
+
+    private AffinityProfile(Map<Category, Double> categoryAffinity, double logPriceMean, double logPriceSpread,
+                            boolean hasPrice, Instant builtAt) {
+        this.categoryAffinity = categoryAffinity;
+        this.logPriceMean = logPriceMean;
+        this.logPriceSpread = logPriceSpread;
+        this.hasPrice = hasPrice;
+        this.builtAt = builtAt;
+    }
+
+    public Instant getBuiltAt() {
+        return builtAt;
+    }
+
+    public boolean isEmpty() {
+        return categoryAffinity.isEmpty() && !hasPrice;
+    }
+
+    public double score(ProductCardDto card, Instant now) {
+        double freshness = 1.0;
+        if (card.getPostDate() != null) {
+            double ageDays = Math.max(0, Duration.between(card.getPostDate(), now).toHours() / 24.0);
+            freshness = Math.pow(2, -ageDays / FRESHNESS_HALF_LIFE_DAYS);
+        }
+        if (isEmpty()) {
+            return freshness;
+        }
+
+        double category = card.getCategory() != null ? categoryAffinity.getOrDefault(card.getCategory(), 0.0) : 0.0;
+        double price = 0.0;
+        if (hasPrice && card.getPrice() != null && card.getPrice().signum() > 0) {
+            double distance = (Math.log(card.getPrice().doubleValue()) - logPriceMean) / logPriceSpread;
+            price = Math.exp(-distance * distance / 2);
+        }
+        return CATEGORY_WEIGHT * category + PRICE_WEIGHT * price + FRESHNESS_WEIGHT * freshness;
+    }
+
+    public static class Builder {
+
+        private final Map<Category, Double> categoryWeights = new EnumMap<>(Category.class);
+        private double priceWeight;
+        private double logPriceSum;
+        private double logPriceSquares;
+
+        public Builder add(Category category, BigDecimal price, double weight) {
+            if (category != null) {
+                categoryWeights.merge(category, weight, Double::sum);
+            }
+            if (price != null && price.signum() > 0) {
+                double logPrice = Math.log(price.doubleValue());
+                priceWeight += weight;
+                logPriceSum += weight * logPrice;
+                logPriceSquares += weight * logPrice * logPrice;
+            }
+            return this;
+        }
+
+        public AffinityProfile build(Instant now) {
+            // the favourite category scores 1, the others in proportion
+            double top = categoryWeights.values().stream().mapToDouble(Double::doubleValue).max().orElse(0);
+            Map<Category, Double> affinity = new EnumMap<>(Category.class);
+            categoryWeights.forEach((category, weight) -> affinity.put(category, weight / top));
+
+            if (priceWeight == 0) {
+                return new AffinityProfile(affinity, 0, 1, false, now);
+            }
+            double mean = logPriceSum / priceWeight;
+            double variance = Math.max(0, logPriceSquares / priceWeight - mean * mean);
+            return new AffinityProfile(affinity, mean, Math.max(Math.sqrt(variance), MIN_LOG_PRICE_SPREAD), true, now);
+        }
+    }
+}
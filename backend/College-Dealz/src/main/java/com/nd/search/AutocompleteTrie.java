@@ -0,0 +1,361 @@
+package com.nd.search;
+
+import com.nd.enums.Category;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Compressed (radix) trie of listing names and categories for one university.
+ * Every phrase is stored under each of its word starts, so "calc" finds "scientific calculator".
+ * Completions are ranked by how many live listings use the phrase, then by the newest of them.
+ * Every node keeps the MAX_COMPLETIONS best phrases of its subtree, refreshed along the paths of a phrase
+ * whenever it is added, re-ranked or dropped, so a lookup costs the prefix walk plus a copy of that list.
+ * The number of phrases is capped; when it is exceeded the lowest ranked phrase is dropped.
+ */
+public class AutocompleteTrie {
+
+    public static final int MAX_COMPLETIONS = 20;
+
+    private static final int MAX_WORDS = 6;
+    private static final int MAX_PHRASE_LENGTH = 60;
+
+    // best first; the last one is the next to be evicted
+    private static final Comparator<Entry> RANK = Comparator
+            .comparingInt(Entry::getListingCount).reversed()
+            .thenComparing(Entry::getNewest, Comparator.reverseOrder())
+            .thenComparing(entry -> entry.key);
+
+    private final int capacity;
+    private final Node root = new Node("");
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final TreeSet<Entry> ranked = new TreeSet<>(RANK);
+    private final Map<Integer, List<Entry>> productEntries = new HashMap<>();
+
+    public AutocompleteTrie(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public synchronized void put(int productId, String name, Category category, Instant postDate) {
+        removeInternal(productId);
+        Instant listed = postDate != null ? postDate : Instant.EPOCH;
+
+        List<Entry> attached = new ArrayList<>(2);
+        String phrase = normalize(name);
+        if (!phrase.isEmpty()) {
+            attached.add(attach("p:" + phrase, phrase, null, productId, listed));
+        }
+        if (category != null) {
+            attached.add(attach("c:" + category.name(), category.toString(), category, productId, listed));
+        }
+        productEntries.put(productId, attached);
+
+        while (entries.size() > capacity) {
+            evict(ranked.last());
+        }
+    }
+
+    public synchronized void remove(int productId) {
+        removeInternal(productId);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized List<Entry> complete(String prefix, int limit) {
+        String key = normalize(prefix);
+        Node node = key.isEmpty() ? null : find(key);
+        if (node == null) {
+            return List.of();
+        }
+
+        return new ArrayList<>(node.top.subList(0, Math.min(limit, node.top.size())));
+    }
+
+    private Entry attach(String key, String text, Category category, int productId, Instant listed) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry(key, text, category);
+            entries.put(key, entry);
+            for (String suffix : wordStarts(text)) {
+                insert(suffix, entry);
+            }
+        } else {
+            ranked.remove(entry);
+        }
+        entry.listings.put(productId, listed);
+        if (listed.isAfter(entry.newest)) {
+            entry.newest = listed;
+        }
+        ranked.add(entry);
+        refresh(entry);
+        return entry;
+    }
+
+    private void removeInternal(int productId) {
+        List<Entry> attached = productEntries.remove(productId);
+        if (attached == null) {
+            return;
+        }
+        for (Entry entry : attached) {
+            ranked.remove(entry);
+            Instant listed = entry.listings.remove(productId);
+            if (entry.listings.isEmpty()) {
+                drop(entry);
+                continue;
+            }
+            if (entry.newest.equals(listed)) {
+                entry.newest = entry.listings.values().stream().max(Comparator.naturalOrder()).orElse(Instant.EPOCH);
+            }
+            ranked.add(entry);
+            refresh(entry);
+        }
+    }
+
+    private void evict(Entry entry) {
+        ranked.remove(entry);
+        for (Integer productId : entry.listings.keySet()) {
+            List<Entry> attached = productEntries.get(productId);
+            if (attached != null) {
+                attached.remove(entry);
+            }
+        }
+        drop(entry);
+    }
+
+    private void drop(Entry entry) {
+        entries.remove(entry.key);
+        for (String suffix : wordStarts(entry.text)) {
+            delete(suffix, entry);
+        }
+        refresh(entry);
+    }
+
+    // Rebuilds the top lists on every path of the entry, deepest node first; a node shared by two paths is
+    // rebuilt again by the later one, after its children on that path are current
+    private void refresh(Entry entry) {
+        for (String suffix : wordStarts(entry.text)) {
+            List<Node> path = path(suffix);
+            for (int depth = path.size() - 1; depth >= 0; depth--) {
+                rebuildTop(path.get(depth));
+            }
+        }
+    }
+
+    // Nodes below the root that the key walks through, including one it ends or branches off part way along
+    private List<Node> path(String key) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            node = node.children.get(key.charAt(i));
+            if (node == null) {
+                break;
+            }
+            path.add(node);
+            if (!key.startsWith(node.label, i)) {
+                break;
+            }
+            i += node.label.length();
+        }
+        return path;
+    }
+
+    private void rebuildTop(Node node) {
+        List<Entry> candidates = new ArrayList<>(node.entries);
+        for (Node child : node.children.values()) {
+            candidates.addAll(child.top);
+        }
+        candidates.sort(RANK);
+
+        // one phrase can sit under several word starts below the node
+        List<Entry> top = new ArrayList<>(Math.min(candidates.size(), MAX_COMPLETIONS));
+        Set<Entry> seen = new HashSet<>();
+        for (Entry candidate : candidates) {
+            if (top.size() == MAX_COMPLETIONS) {
+                break;
+            }
+            if (seen.add(candidate)) {
+                top.add(candidate);
+            }
+        }
+        node.top = top;
+    }
+
+    private void insert(String key, Entry entry) {
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.children.get(key.charAt(i));
+            if (child == null) {
+                child = new Node(key.substring(i));
+                node.children.put(key.charAt(i), child);
+                node = child;
+                break;
+            }
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length()) {
+                // split the edge where the new key branches off
+                Node middle = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.children.put(child.label.charAt(0), child);
+                node.children.put(middle.label.charAt(0), middle);
+                child = middle;
+            }
+            node = child;
+            i += common;
+        }
+        node.entries.add(entry);
+    }
+
+    private void delete(String key, Entry entry) {
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            node = node.children.get(key.charAt(i));
+            if (node == null || !key.startsWith(node.label, i)) {
+                return;
+            }
+            path.add(node);
+            i += node.label.length();
+        }
+        node.entries.remove(entry);
+
+        // prune empty leaves and merge nodes left with a single child, keeping the trie compressed
+        for (int depth = path.size() - 1; depth >= 1; depth--) {
+            Node current = path.get(depth);
+            if (!current.entries.isEmpty()) {
+                break;
+            }
+            if (current.children.isEmpty()) {
+                path.get(depth - 1).children.remove(current.label.charAt(0));
+                continue;
+            }
+            if (current.children.size() == 1) {
+                Node only = current.children.values().iterator().next();
+                current.label = current.label + only.label;
+                current.children.clear();
+                current.children.putAll(only.children);
+                current.entries.addAll(only.entries);
+            }
+            break;
+        }
+    }
+
+    private Node find(String prefix) {
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            Node child = node.children.get(prefix.charAt(i));
+            if (child == null) {
+                return null;
+            }
+            int common = commonPrefix(child.label, prefix, i);
+            if (i + common == prefix.length()) {
+                // the prefix may end part way along an edge
+                return child;
+            }
+            if (common < child.label.length()) {
+                return null;
+            }
+            node = child;
+            i += common;
+        }
+        return node;
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int length = 0;
+        while (length < label.length() && offset + length < key.length()
+                && label.charAt(length) == key.charAt(offset + length)) {
+            length++;
+        }
+        return length;
+    }
+
+    private static List<String> wordStarts(String phrase) {
+        List<String> starts = new ArrayList<>();
+        starts.add(phrase);
+        for (int i = 0; i < phrase.length(); i++) {
+            if (phrase.charAt(i) == ' ') {
+                starts.add(phrase.substring(i + 1));
+            }
+        }
+        return starts;
+    }
+
+    // Lowercase words separated by single spaces, trimmed to MAX_WORDS words / MAX_PHRASE_LENGTH chars
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String[] words = text.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", " ").trim().split(" ");
+        StringBuilder phrase = new StringBuilder();
+        for (int i = 0; i < words.length && i < MAX_WORDS; i++) {
+            if (words[i].isEmpty() || phrase.length() + words[i].length() + 1 > MAX_PHRASE_LENGTH) {
+                break;
+            }
+            if (phrase.length() > 0) {
+                phrase.append(' ');
+            }
+            phrase.append(words[i]);
+        }
+        return phrase.toString();
+    }
+
+    private static final class Node {
+
+        private String label;
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private final Set<Entry> entries = new HashSet<>(2);
+        // best MAX_COMPLETIONS entries of this node and everything below it, in RANK order
+        private List<Entry> top = List.of();
+
+        private Node(String label) {
+            this.label = label;
+        }
+    }
+
+    public static final class Entry {
+
+        private final String key;
+        private final String text;
+        private final Category category;
+        private final Map<Integer, Instant> listings = new HashMap<>();
+        private Instant newest = Instant.EPOCH;
+
+        private Entry(String key, String text, Category category) {
+            this.key = key;
+            this.text = text;
+            this.category = category;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        // null for listing names
+        public Category getCategory() {
+            return category;
+        }
+
+        public int getListingCount() {
+            return listings.size();
+        }
+
+        public Instant getNewest() {
+            return newest;
+        }
+    }
+}
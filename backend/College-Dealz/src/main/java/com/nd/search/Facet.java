@@ -0,0 +1,81 @@
+package com.nd.search;
+
+import com.nd.dto.ProductSnapshot;
+import com.nd.enums.Category;
+import com.nd.enums.Condition;
+import com.nd.enums.ProductStatus;
+import com.nd.exceptions.ApiException;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+// Product attributes the facet index keeps a bitmap per value for
+public enum Facet {
+
+    CATEGORY("category", names(Category.values())),
+    CONDITION("condition", names(Condition.values())),
+    PRICE("price", List.of("0-500", "500-1000", "1000-2500", "2500-5000", "5000-10000", "10000+")),
+    AGE("age", List.of("0-3", "3-6", "6-12", "12-24", "24+")),
+    STATUS("status", names(ProductStatus.values()));
+
+    // lower bounds of the PRICE buckets (rupees) and AGE buckets (months), in label order
+    private static final int[] PRICE_FLOORS = {0, 500, 1000, 2500, 5000, 10000};
+    private static final int[] AGE_FLOORS = {0, 3, 6, 12, 24};
+
+    private final String key;
+    private final List<String> values;
+
+    Facet(String key, List<String> values) {
+        this.key = key;
+        this.values = values;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public List<String> getValues() {
+        return values;
+    }
+
+    // The bucket or enum name this product falls in, null when the attribute is missing
+    public String valueOf(ProductSnapshot product) {
+        switch (this) {
+            case CATEGORY:
+                return product.getCategory() != null ? product.getCategory().name() : null;
+            case CONDITION:
+                return product.getCondition() != null ? product.getCondition().name() : null;
+            case PRICE:
+                return product.getPrice() != null ? bucket(PRICE_FLOORS, product.getPrice()) : null;
+            case AGE:
+                return product.getMonthsOld() != null ? bucket(AGE_FLOORS, BigDecimal.valueOf(product.getMonthsOld())) : null;
+            default:
+                return product.getStatus() != null ? product.getStatus().name() : null;
+        }
+    }
+
+    // Accepts the label or, for enum facets, the readable form ("like new")
+    public String normalize(String value) {
+        String candidate = value.trim();
+        if (this == CATEGORY || this == CONDITION || this == STATUS) {
+            candidate = candidate.toUpperCase().replace(' ', '_');
+        }
+        if (!values.contains(candidate)) {
+            throw new ApiException("Unknown " + key + ": " + value);
+        }
+        return candidate;
+    }
+
+    private String bucket(int[] floors, BigDecimal amount) {
+        int index = 0;
+        while (index + 1 < floors.length && amount.compareTo(BigDecimal.valueOf(floors[index + 1])) >= 0) {
+            index++;
+        }
+        return values.get(index);
+    }
+
+    private static List<String> names(Enum<?>[] constants) {
+        return Arrays.stream(constants).map(Enum::name).toList();
+    }
+}
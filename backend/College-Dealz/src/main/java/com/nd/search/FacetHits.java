@@ -0,0 +1,16 @@
+package com.nd.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+
+// One page of matching product ids, the total, and facet -> value -> count
+@Getter
+@AllArgsConstructor
+public class FacetHits {
+
+    private final int[] productIds;
+    private final int total;
+    private final Map<String, Map<String, Integer>> counts;
+}
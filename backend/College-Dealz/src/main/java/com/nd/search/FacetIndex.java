@@ -0,0 +1,123 @@
+package com.nd.search;
+
+import com.nd.dto.ProductSnapshot;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * One bitmap of product ids per facet value for the listings of one university.
+ * A filter ORs the selected values inside a facet and ANDs the facets; each facet's counts are taken
+ * against the other facets' filters only, so the UI can show how many listings picking a value would add.
+ */
+public class FacetIndex {
+
+    private final Map<Facet, Map<String, RoaringBitmap>> bitmaps = new EnumMap<>(Facet.class);
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final Map<Integer, String[]> productValues = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public FacetIndex() {
+        for (Facet facet : Facet.values()) {
+            Map<String, RoaringBitmap> values = new LinkedHashMap<>();
+            facet.getValues().forEach(value -> values.put(value, new RoaringBitmap()));
+            bitmaps.put(facet, values);
+        }
+    }
+
+    public void put(ProductSnapshot product) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(product.getId());
+            String[] values = new String[Facet.values().length];
+            for (Facet facet : Facet.values()) {
+                String value = facet.valueOf(product);
+                if (value != null) {
+                    bitmaps.get(facet).get(value).add(product.getId());
+                    values[facet.ordinal()] = value;
+                }
+            }
+            all.add(product.getId());
+            productValues.put(product.getId(), values);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int productId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // selection: facet -> accepted values (already normalized); facets left out do not filter
+    public FacetHits search(Map<Facet, Set<String>> selection, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            Map<Facet, RoaringBitmap> filters = new EnumMap<>(Facet.class);
+            selection.forEach((facet, values) -> {
+                if (!values.isEmpty()) {
+                    RoaringBitmap union = new RoaringBitmap();
+                    for (String value : values) {
+                        union = RoaringBitmap.or(union, bitmaps.get(facet).get(value));
+                    }
+                    filters.put(facet, union);
+                }
+            });
+
+            Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+            for (Facet facet : Facet.values()) {
+                RoaringBitmap others = intersect(filters, facet);
+                Map<String, Integer> facetCounts = new LinkedHashMap<>();
+                bitmaps.get(facet).forEach((value, bitmap) ->
+                        facetCounts.put(value, RoaringBitmap.andCardinality(bitmap, others)));
+                counts.put(facet.getKey(), facetCounts);
+            }
+
+            // newest listings (highest ids) first
+            int[] matches = intersect(filters, null).toArray();
+            int from = Math.max(0, matches.length - offset);
+            int to = Math.max(0, from - limit);
+            int[] page = new int[from - to];
+            for (int i = 0; i < page.length; i++) {
+                page[i] = matches[from - 1 - i];
+            }
+            return new FacetHits(page, matches.length, counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // AND of every facet filter except the one being counted
+    private RoaringBitmap intersect(Map<Facet, RoaringBitmap> filters, Facet skipped) {
+        RoaringBitmap result = all;
+        for (Map.Entry<Facet, RoaringBitmap> filter : filters.entrySet()) {
+            if (filter.getKey() != skipped) {
+                result = RoaringBitmap.and(result, filter.getValue());
+            }
+        }
+        return result;
+    }
+
+    private void removeInternal(int productId) {
+        String[] values = productValues.remove(productId);
+        if (values == null) {
+            return;
+        }
+        for (Facet facet : Facet.values()) {
+            if (values[facet.ordinal()] != null) {
+                bitmaps.get(facet).get(values[facet.ordinal()]).remove(productId);
+            }
+        }
+        all.remove(productId);
+    }
+}
@@ -0,0 +1,136 @@
+package com.nd.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Term -> postings index for the listings of one university, ranked with Okapi BM25.
+ * Reads run concurrently; a write (one listing added, changed or removed) takes the write lock briefly.
+ */
+public class InvertedIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final Map<String, Map<Integer, Integer>> postings = new HashMap<>();
+    private final Map<Integer, String[]> documentTerms = new HashMap<>();
+    private final Map<Integer, Integer> documentLengths = new HashMap<>();
+    private long totalLength;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void put(int productId, Map<String, Integer> termFrequencies) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(productId);
+            int length = 0;
+            for (Map.Entry<String, Integer> entry : termFrequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), term -> new HashMap<>()).put(productId, entry.getValue());
+                length += entry.getValue();
+            }
+            documentTerms.put(productId, termFrequencies.keySet().toArray(new String[0]));
+            documentLengths.put(productId, length);
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int productId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentLengths.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public SearchHits search(Collection<String> queryTerms, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            int documentCount = documentLengths.size();
+            if (documentCount == 0 || queryTerms.isEmpty()) {
+                return SearchHits.empty();
+            }
+            double averageLength = (double) totalLength / documentCount;
+
+            Map<Integer, double[]> scores = new HashMap<>();
+            for (String term : new LinkedHashSet<>(queryTerms)) {
+                Map<Integer, Integer> termPostings = postings.get(term);
+                if (termPostings == null) {
+                    continue;
+                }
+                int documentFrequency = termPostings.size();
+                double idf = Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+                for (Map.Entry<Integer, Integer> posting : termPostings.entrySet()) {
+                    int tf = posting.getValue();
+                    double norm = K1 * (1 - B + B * documentLengths.get(posting.getKey()) / averageLength);
+                    double score = idf * tf * (K1 + 1) / (tf + norm);
+                    scores.computeIfAbsent(posting.getKey(), id -> new double[1])[0] += score;
+                }
+            }
+            return new SearchHits(topIds(scores, offset, limit), scores.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeInternal(int productId) {
+        String[] terms = documentTerms.remove(productId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Integer, Integer> termPostings = postings.get(term);
+            if (termPostings != null) {
+                termPostings.remove(productId);
+                if (termPostings.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalLength -= documentLengths.remove(productId);
+    }
+
+    // keeps only offset + limit candidates in a min-heap instead of sorting every match
+    private static List<Integer> topIds(Map<Integer, double[]> scores, int offset, int limit) {
+        int wanted = offset + limit;
+        if (wanted <= 0 || offset >= scores.size()) {
+            return List.of();
+        }
+        PriorityQueue<Map.Entry<Integer, double[]>> heap = new PriorityQueue<>(wanted + 1,
+                (a, b) -> a.getValue()[0] != b.getValue()[0]
+                        ? Double.compare(a.getValue()[0], b.getValue()[0])
+                        : Integer.compare(a.getKey(), b.getKey()));
+        for (Map.Entry<Integer, double[]> entry : scores.entrySet()) {
+            heap.offer(entry);
+            if (heap.size() > wanted) {
+                heap.poll();
+            }
+        }
+        List<Integer> ranked = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            ranked.add(heap.poll().getKey());
+        }
+        // heap pops lowest first; best match (ties: newest listing) goes first
+        Collections.reverse(ranked);
+        return new ArrayList<>(ranked.subList(Math.min(offset, ranked.size()), ranked.size()));
+    }
+}
@@ -0,0 +1,267 @@
+package com.nd.search;
+
+import java.util.Arrays;
+
+/**
+ * Porter (1980) suffix-stripping stemmer, so that "chairs", "chair" and "chairing"
+ * end up on the same posting list. Not thread-safe: use one instance per call.
+ */
+class PorterStemmer {
+
+    private char[] b;
+    private int k; // end of the current word
+    private int j; // end of the stem when a suffix matched
+
+    String stem(String word) {
+        if (word.length() <= 2) {
+            return word;
+        }
+        b = word.toCharArray();
+        k = b.length - 1;
+        step1ab();
+        if (k > 0) {
+            step1c();
+            step2();
+            step3();
+            step4();
+            step5();
+        }
+        return new String(b, 0, k + 1);
+    }
+
+    private boolean cons(int i) {
+        switch (b[i]) {
+            case 'a': case 'e': case 'i': case 'o': case 'u':
+                return false;
+            case 'y':
+                return i == 0 || !cons(i - 1);
+            default:
+                return true;
+        }
+    }
+
+    // number of vowel-consonant sequences in b[0..j]
+    private int m() {
+        int n = 0;
+        int i = 0;
+        while (true) {
+            if (i > j) return n;
+            if (!cons(i)) break;
+            i++;
+        }
+        i++;
+        while (true) {
+            while (true) {
+                if (i > j) return n;
+                if (cons(i)) break;
+                i++;
+            }
+            i++;
+            n++;
+            while (true) {
+                if (i > j) return n;
+                if (!cons(i)) break;
+                i++;
+            }
+            i++;
+        }
+    }
+
+    private boolean vowelInStem() {
+        for (int i = 0; i <= j; i++) {
+            if (!cons(i)) return true;
+        }
+        return false;
+    }
+
+    private boolean doublec(int i) {
+        return i >= 1 && b[i] == b[i - 1] && cons(i);
+    }
+
+    // consonant-vowel-consonant ending, where the last consonant is not w, x or y
+    private boolean cvc(int i) {
+        if (i < 2 || !cons(i) || cons(i - 1) || !cons(i - 2)) return false;
+        char ch = b[i];
+        return ch != 'w' && ch != 'x' && ch != 'y';
+    }
+
+    private boolean ends(String s) {
+        int length = s.length();
+        int offset = k - length + 1;
+        if (offset < 0) return false;
+        for (int i = 0; i < length; i++) {
+            if (b[offset + i] != s.charAt(i)) return false;
+        }
+        j = k - length;
+        return true;
+    }
+
+    private void setTo(String s) {
+        int length = s.length();
+        int offset = j + 1;
+        if (offset + length > b.length) {
+            b = Arrays.copyOf(b, offset + length);
+        }
+        for (int i = 0; i < length; i++) {
+            b[offset + i] = s.charAt(i);
+        }
+        k = j + length;
+    }
+
+    private void replace(String s) {
+        if (m() > 0) setTo(s);
+    }
+
+    // plurals and -ed / -ing
+    private void step1ab() {
+        if (b[k] == 's') {
+            if (ends("sses")) k -= 2;
+            else if (ends("ies")) setTo("i");
+            else if (b[k - 1] != 's') k--;
+        }
+        if (ends("eed")) {
+            if (m() > 0) k--;
+        } else if ((ends("ed") || ends("ing")) && vowelInStem()) {
+            k = j;
+            if (ends("at")) setTo("ate");
+            else if (ends("bl")) setTo("ble");
+            else if (ends("iz")) setTo("ize");
+            else if (doublec(k)) {
+                k--;
+                char ch = b[k];
+                if (ch == 'l' || ch == 's' || ch == 'z') k++;
+            } else if (m() == 1 && cvc(k)) setTo("e");
+        }
+    }
+
+    // terminal y -> i when there is another vowel in the stem
+    private void step1c() {
+        if (ends("y") && vowelInStem()) b[k] = 'i';
+    }
+
+    // double suffixes -> single ones, e.g. -ization -> -ize
+    private void step2() {
+        if (k < 1) return;
+        switch (b[k - 1]) {
+            case 'a':
+                if (ends("ational")) replace("ate");
+                else if (ends("tional")) replace("tion");
+                break;
+            case 'c':
+                if (ends("enci")) replace("ence");
+                else if (ends("anci")) replace("ance");
+                break;
+            case 'e':
+                if (ends("izer")) replace("ize");
+                break;
+            case 'l':
+                if (ends("bli")) replace("ble");
+                else if (ends("alli")) replace("al");
+                else if (ends("entli")) replace("ent");
+                else if (ends("eli")) replace("e");
+                else if (ends("ousli")) replace("ous");
+                break;
+            case 'o':
+                if (ends("ization")) replace("ize");
+                else if (ends("ation")) replace("ate");
+                else if (ends("ator")) replace("ate");
+                break;
+            case 's':
+                if (ends("alism")) replace("al");
+                else if (ends("iveness")) replace("ive");
+                else if (ends("fulness")) replace("ful");
+                else if (ends("ousness")) replace("ous");
+                break;
+            case 't':
+                if (ends("aliti")) replace("al");
+                else if (ends("iviti")) replace("ive");
+                else if (ends("biliti")) replace("ble");
+                break;
+            case 'g':
+                if (ends("logi")) replace("log");
+                break;
+            default:
+                break;
+        }
+    }
+
+    // -ic-, -full, -ness etc.
+    private void step3() {
+        switch (b[k]) {
+            case 'e':
+                if (ends("icate")) replace("ic");
+                else if (ends("ative")) replace("");
+                else if (ends("alize")) replace("al");
+                break;
+            case 'i':
+                if (ends("iciti")) replace("ic");
+                break;
+            case 'l':
+                if (ends("ical")) replace("ic");
+                else if (ends("ful")) replace("");
+                break;
+            case 's':
+                if (ends("ness")) replace("");
+                break;
+            default:
+                break;
+        }
+    }
+
+    // -ant, -ence etc. in context <c>vcvc<v>
+    private void step4() {
+        if (k < 1) return;
+        boolean matched;
+        switch (b[k - 1]) {
+            case 'a':
+                matched = ends("al");
+                break;
+            case 'c':
+                matched = ends("ance") || ends("ence");
+                break;
+            case 'e':
+                matched = ends("er");
+                break;
+            case 'i':
+                matched = ends("ic");
+                break;
+            case 'l':
+                matched = ends("able") || ends("ible");
+                break;
+            case 'n':
+                matched = ends("ant") || ends("ement") || ends("ment") || ends("ent");
+                break;
+            case 'o':
+                matched = (ends("ion") && j >= 0 && (b[j] == 's' || b[j] == 't')) || ends("ou");
+                break;
+            case 's':
+                matched = ends("ism");
+                break;
+            case 't':
+                matched = ends("ate") || ends("iti");
+                break;
+            case 'u':
+                matched = ends("ous");
+                break;
+            case 'v':
+                matched = ends("ive");
+                break;
+            case 'z':
+                matched = ends("ize");
+                break;
+            default:
+                matched = false;
+        }
+        if (matched && m() > 1) k = j;
+    }
+
+    // final -e and -ll
+    private void step5() {
+        j = k;
+        if (b[k] == 'e') {
+            int a = m();
+            if (a > 1 || (a == 1 && !cvc(k - 1))) k--;
+        }
+        if (b[k] == 'l' && doublec(k) && m() > 1) k--;
+    }
+}
@@ -0,0 +1,17 @@
+package com.nd.search;
+
+import com.nd.dto.ProductSnapshot;
+
+// An in-memory, per-university structure kept in sync with the products table by ProductIndexUpdater
+public interface ProductIndex {
+
+    // Called for every live listing, both while loading at startup and after each create/update/relist
+    void index(ProductSnapshot product);
+
+    // Called when a listing leaves the feed (removed, sold or deleted)
+    void remove(int universityId, int productId);
+
+    // Called once the startup load has gone through the whole table
+    default void loaded() {
+    }
+}
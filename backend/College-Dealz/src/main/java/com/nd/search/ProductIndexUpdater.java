@@ -0,0 +1,64 @@
+package com.nd.search;
+
+import com.nd.dto.ProductSnapshot;
+import com.nd.events.ProductChangedEvent;
+import com.nd.repositories.ProductRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Feeds every {@link ProductIndex} bean: one keyset scan over products at startup,
+ * then one call per {@link ProductChangedEvent} once the change is committed.
+ */
+@Component
+public class ProductIndexUpdater {
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private final Logger logger = LoggerFactory.getLogger(ProductIndexUpdater.class);
+
+    private final ProductRepo productRepo;
+    private final List<ProductIndex> indexes;
+
+    public ProductIndexUpdater(ProductRepo productRepo, List<ProductIndex> indexes) {
+        this.productRepo = productRepo;
+        this.indexes = indexes;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAll() {
+        long start = System.currentTimeMillis();
+        int loaded = 0;
+        int afterId = 0;
+        List<ProductSnapshot> batch;
+        do {
+            batch = productRepo.findSnapshotsAfter(afterId, PageRequest.of(0, LOAD_BATCH_SIZE));
+            for (ProductSnapshot product : batch) {
+                indexes.forEach(index -> index.index(product));
+                afterId = product.getId();
+            }
+            loaded += batch.size();
+        } while (batch.size() == LOAD_BATCH_SIZE);
+
+        indexes.forEach(ProductIndex::loaded);
+        logger.info("Loaded {} products into {} indexes in {} ms", loaded, indexes.size(), System.currentTimeMillis() - start);
+    }
+
+    // fallbackExecution: most product writes are not transactional and should still reach the indexes
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        ProductSnapshot product = event.getProduct();
+        if (event.isLive()) {
+            indexes.forEach(index -> index.index(product));
+        } else {
+            indexes.forEach(index -> index.remove(product.getUniversityId(), product.getId()));
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.nd.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// One page of ranked product ids plus how many listings matched in total
+@Getter
+@AllArgsConstructor
+public class SearchHits {
+
+    private final List<Integer> productIds;
+    private final long total;
+
+    public static SearchHits empty() {
+        return new SearchHits(List.of(), 0);
+    }
+}
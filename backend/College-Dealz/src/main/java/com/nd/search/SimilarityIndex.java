@@ -0,0 +1,271 @@
+package com.nd.search;
+
+import com.nd.dto.ProductSnapshot;
+import com.nd.enums.Category;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Item-to-item neighbor table for the listings of one university. When a listing is added or changed it is
+ * scored against a bounded candidate set (listings sharing a term, the newest of its category, and
+ * listings wishlisted together with it), and each pair is offered to both listings' neighbor lists, which
+ * keep only the best K. Reads never compute similarity. When a listing goes away, every full list it was on is
+ * refilled from the owner's own candidate set, so lists do not shrink as listings close.
+ */
+public class SimilarityIndex {
+
+    private static final double TEXT_WEIGHT = 0.5;
+    private static final double CATEGORY_WEIGHT = 0.2;
+    private static final double PRICE_WEIGHT = 0.15;
+    private static final double CO_WISHLIST_WEIGHT = 0.15;
+    // co-wishlisted by this many users counts as fully related
+    private static final int CO_WISHLIST_SATURATION = 3;
+    private static final double MIN_SCORE = 0.25;
+
+    private static final int MAX_TERMS = 30;
+    // terms in more listings than this say little and would make the candidate set unbounded
+    private static final int MAX_POSTINGS_SCANNED = 500;
+    private static final int CATEGORY_CANDIDATES = 50;
+
+    private final int neighborsPerProduct;
+
+    private final Map<Integer, Item> items = new HashMap<>();
+    private final Map<String, Set<Integer>> postings = new HashMap<>();
+    private final Map<Category, TreeSet<Integer>> byCategory = new EnumMap<>(Category.class);
+    private final Map<Integer, List<Neighbor>> neighbors = new HashMap<>();
+    // reverse of neighbors: the owners whose list holds a listing
+    private final Map<Integer, Set<Integer>> listedBy = new HashMap<>();
+    private final Map<Integer, Map<Integer, Integer>> coWishlists = new HashMap<>();
+
+    public SimilarityIndex(int neighborsPerProduct) {
+        this.neighborsPerProduct = neighborsPerProduct;
+    }
+
+    public synchronized void put(ProductSnapshot product) {
+        int productId = product.getId();
+        removeInternal(productId);
+
+        Item item = new Item(vector(product), product.getCategory(), product.getPrice());
+        items.put(productId, item);
+        item.terms.keySet().forEach(term -> postings.computeIfAbsent(term, t -> new HashSet<>()).add(productId));
+        if (item.category != null) {
+            byCategory.computeIfAbsent(item.category, c -> new TreeSet<>()).add(productId);
+        }
+
+        for (Integer candidate : candidates(productId, item)) {
+            offerPair(productId, candidate);
+        }
+    }
+
+    public synchronized void remove(int productId) {
+        removeInternal(productId);
+        Map<Integer, Integer> partners = coWishlists.remove(productId);
+        if (partners != null) {
+            partners.keySet().forEach(other -> {
+                Map<Integer, Integer> counts = coWishlists.get(other);
+                if (counts != null) {
+                    counts.remove(productId);
+                }
+            });
+        }
+    }
+
+    // Two listings ended up on the same user's wishlist
+    public synchronized void addCoWishlist(int productId, int otherId) {
+        if (productId == otherId || !items.containsKey(productId) || !items.containsKey(otherId)) {
+            return;
+        }
+        coWishlists.computeIfAbsent(productId, id -> new HashMap<>()).merge(otherId, 1, Integer::sum);
+        coWishlists.computeIfAbsent(otherId, id -> new HashMap<>()).merge(productId, 1, Integer::sum);
+        offerPair(productId, otherId);
+    }
+
+    // Best first
+    public synchronized List<Integer> neighbors(int productId, int limit) {
+        List<Integer> result = new ArrayList<>();
+        for (Neighbor neighbor : neighbors.getOrDefault(productId, List.of())) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(neighbor.productId);
+        }
+        return result;
+    }
+
+    private Set<Integer> candidates(int productId, Item item) {
+        Set<Integer> candidates = new HashSet<>();
+        for (String term : item.terms.keySet()) {
+            Set<Integer> products = postings.get(term);
+            if (products.size() <= MAX_POSTINGS_SCANNED) {
+                candidates.addAll(products);
+            }
+        }
+        if (item.category != null) {
+            Iterator<Integer> newest = byCategory.get(item.category).descendingIterator();
+            for (int i = 0; i < CATEGORY_CANDIDATES && newest.hasNext(); i++) {
+                candidates.add(newest.next());
+            }
+        }
+        candidates.addAll(coWishlists.getOrDefault(productId, Map.of()).keySet());
+        candidates.remove(productId);
+        return candidates;
+    }
+
+    private void offerPair(int productId, int otherId) {
+        Item item = items.get(productId);
+        Item other = items.get(otherId);
+        if (item == null || other == null) {
+            return;
+        }
+        double score = score(productId, item, otherId, other);
+        offer(productId, otherId, score);
+        offer(otherId, productId, score);
+    }
+
+    private double score(int productId, Item item, int otherId, Item other) {
+        double text = 0;
+        Map<String, Double> smaller = item.terms.size() <= other.terms.size() ? item.terms : other.terms;
+        Map<String, Double> larger = smaller == item.terms ? other.terms : item.terms;
+        for (Map.Entry<String, Double> term : smaller.entrySet()) {
+            text += term.getValue() * larger.getOrDefault(term.getKey(), 0.0);
+        }
+
+        double category = item.category != null && item.category == other.category ? 1 : 0;
+
+        double price = 0;
+        if (item.price != null && other.price != null && item.price.signum() > 0 && other.price.signum() > 0) {
+            price = item.price.min(other.price).doubleValue() / item.price.max(other.price).doubleValue();
+        }
+
+        int together = coWishlists.getOrDefault(productId, Map.of()).getOrDefault(otherId, 0);
+        double coWishlist = Math.min(1.0, together / (double) CO_WISHLIST_SATURATION);
+
+        return TEXT_WEIGHT * text + CATEGORY_WEIGHT * category + PRICE_WEIGHT * price + CO_WISHLIST_WEIGHT * coWishlist;
+    }
+
+    private void offer(int ownerId, int productId, double score) {
+        List<Neighbor> list = neighbors.computeIfAbsent(ownerId, id -> new ArrayList<>(neighborsPerProduct + 1));
+        if (list.removeIf(neighbor -> neighbor.productId == productId)) {
+            unlink(ownerId, productId);
+        }
+        if (score < MIN_SCORE) {
+            return;
+        }
+        list.add(new Neighbor(productId, score));
+        listedBy.computeIfAbsent(productId, id -> new HashSet<>()).add(ownerId);
+        list.sort(Neighbor.BEST_FIRST);
+        if (list.size() > neighborsPerProduct) {
+            unlink(ownerId, list.remove(list.size() - 1).productId);
+        }
+    }
+
+    private void unlink(int ownerId, int productId) {
+        Set<Integer> owners = listedBy.get(productId);
+        if (owners != null) {
+            owners.remove(ownerId);
+            if (owners.isEmpty()) {
+                listedBy.remove(productId);
+            }
+        }
+    }
+
+    // Offers the owner every current candidate again; a listing that is gone no longer scores
+    private void refill(int ownerId) {
+        Item owner = items.get(ownerId);
+        if (owner == null) {
+            return;
+        }
+        for (Integer candidate : candidates(ownerId, owner)) {
+            Item other = items.get(candidate);
+            if (other != null) {
+                offer(ownerId, candidate, score(ownerId, owner, candidate, other));
+            }
+        }
+    }
+
+    private void removeInternal(int productId) {
+        Item item = items.remove(productId);
+        if (item == null) {
+            return;
+        }
+        for (String term : item.terms.keySet()) {
+            Set<Integer> products = postings.get(term);
+            products.remove(productId);
+            if (products.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        if (item.category != null) {
+            byCategory.get(item.category).remove(productId);
+        }
+        List<Neighbor> own = neighbors.remove(productId);
+        if (own != null) {
+            own.forEach(neighbor -> unlink(productId, neighbor.productId));
+        }
+
+        Set<Integer> owners = listedBy.remove(productId);
+        if (owners == null) {
+            return;
+        }
+        for (Integer ownerId : owners) {
+            List<Neighbor> list = neighbors.get(ownerId);
+            list.removeIf(neighbor -> neighbor.productId == productId);
+            // a list that was not full already holds every candidate that scores high enough
+            if (list.size() == neighborsPerProduct - 1) {
+                refill(ownerId);
+            }
+        }
+    }
+
+    // L2-normalized log term frequencies of name and description, strongest MAX_TERMS only
+    private static Map<String, Double> vector(ProductSnapshot product) {
+        Map<String, Double> weights = new HashMap<>();
+        TextAnalyzer.termFrequencies(product.getName(), product.getDescription()).entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .limit(MAX_TERMS)
+                .forEach(term -> weights.put(term.getKey(), 1 + Math.log(term.getValue())));
+        double norm = Math.sqrt(weights.values().stream().mapToDouble(w -> w * w).sum());
+        if (norm > 0) {
+            weights.replaceAll((term, weight) -> weight / norm);
+        }
+        return weights;
+    }
+
+    private static final class Item {
+
+        private final Map<String, Double> terms;
+        private final Category category;
+        private final BigDecimal price;
+
+        private Item(Map<String, Double> terms, Category category, BigDecimal price) {
+            this.terms = terms;
+            this.category = category;
+            this.price = price;
+        }
+    }
+
+    private static final class Neighbor {
+
+        private static final Comparator<Neighbor> BEST_FIRST = Comparator.<Neighbor>comparingDouble(n -> n.score)
+                .reversed()
+                .thenComparing(n -> n.productId, Comparator.reverseOrder());
+
+        private final int productId;
+        private final double score;
+
+        private Neighbor(int productId, double score) {
+            this.productId = productId;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.nd.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Symmetric-delete spelling corrector over the words used in listing names of one university.
+ * Every vocabulary word is stored under all its variants with up to MAX_DISTANCE characters deleted,
+ * so a misspelling is matched by generating its own deletes and looking them up, not by scanning
+ * the vocabulary.
+ */
+public class SpellingIndex {
+
+    private static final int MAX_DISTANCE = 2;
+    // deletes are generated from this many leading characters, which bounds the index size
+    private static final int PREFIX_LENGTH = 7;
+    private static final int MIN_WORD_LENGTH = 3;
+
+    private final Map<String, Integer> wordCounts = new HashMap<>();
+    private final Map<String, Set<String>> deletes = new HashMap<>();
+    private final Map<Integer, String[]> productWords = new HashMap<>();
+
+    public synchronized void put(int productId, List<String> words) {
+        removeInternal(productId);
+        Set<String> distinct = new HashSet<>();
+        for (String word : words) {
+            if (word.length() >= MIN_WORD_LENGTH && isAlphabetic(word)) {
+                distinct.add(word);
+            }
+        }
+        for (String word : distinct) {
+            if (wordCounts.merge(word, 1, Integer::sum) == 1) {
+                for (String variant : deletesOf(word)) {
+                    deletes.computeIfAbsent(variant, v -> new HashSet<>()).add(word);
+                }
+            }
+        }
+        productWords.put(productId, distinct.toArray(new String[0]));
+    }
+
+    public synchronized void remove(int productId) {
+        removeInternal(productId);
+    }
+
+    public synchronized boolean contains(String word) {
+        return wordCounts.containsKey(word);
+    }
+
+    // Closest known words first; among equally close ones, the word used by more listings wins
+    public synchronized List<String> suggest(String word, int max) {
+        if (wordCounts.containsKey(word) || word.length() < MIN_WORD_LENGTH) {
+            return List.of();
+        }
+        Map<String, Integer> distances = new HashMap<>();
+        for (String variant : deletesOf(word)) {
+            Set<String> candidates = deletes.get(variant);
+            if (candidates == null) {
+                continue;
+            }
+            for (String candidate : candidates) {
+                if (!distances.containsKey(candidate)) {
+                    distances.put(candidate, distance(word, candidate));
+                }
+            }
+        }
+        List<String> suggestions = new ArrayList<>();
+        distances.forEach((candidate, distance) -> {
+            if (distance <= MAX_DISTANCE) {
+                suggestions.add(candidate);
+            }
+        });
+        suggestions.sort(Comparator.<String>comparingInt(distances::get)
+                .thenComparing(candidate -> -wordCounts.get(candidate))
+                .thenComparing(Comparator.naturalOrder()));
+        return suggestions.size() > max ? new ArrayList<>(suggestions.subList(0, max)) : suggestions;
+    }
+
+    private void removeInternal(int productId) {
+        String[] words = productWords.remove(productId);
+        if (words == null) {
+            return;
+        }
+        for (String word : words) {
+            Integer count = wordCounts.get(word);
+            if (count == null) {
+                continue;
+            }
+            if (count > 1) {
+                wordCounts.put(word, count - 1);
+                continue;
+            }
+            wordCounts.remove(word);
+            for (String variant : deletesOf(word)) {
+                Set<String> candidates = deletes.get(variant);
+                if (candidates != null) {
+                    candidates.remove(word);
+                    if (candidates.isEmpty()) {
+                        deletes.remove(variant);
+                    }
+                }
+            }
+        }
+    }
+
+    // the word's prefix plus every string reachable from it by deleting up to MAX_DISTANCE characters
+    private static Set<String> deletesOf(String word) {
+        String prefix = word.length() > PREFIX_LENGTH ? word.substring(0, PREFIX_LENGTH) : word;
+        Set<String> variants = new HashSet<>();
+        variants.add(prefix);
+        List<String> frontier = List.of(prefix);
+        for (int d = 0; d < MAX_DISTANCE; d++) {
+            List<String> next = new ArrayList<>();
+            for (String current : frontier) {
+                if (current.length() <= 1) {
+                    continue;
+                }
+                for (int i = 0; i < current.length(); i++) {
+                    String variant = current.substring(0, i) + current.substring(i + 1);
+                    if (variants.add(variant)) {
+                        next.add(variant);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return variants;
+    }
+
+    // Damerau-Levenshtein (optimal string alignment), so "calcualtor" is one edit away
+    static int distance(String a, String b) {
+        if (Math.abs(a.length() - b.length()) > MAX_DISTANCE) {
+            return MAX_DISTANCE + 1;
+        }
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) d[i][0] = i;
+        for (int j = 0; j <= b.length(); j++) d[0][j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    private static boolean isAlphabetic(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (!Character.isLetter(word.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
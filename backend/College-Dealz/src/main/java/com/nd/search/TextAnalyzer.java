@@ -0,0 +1,76 @@
+package com.nd.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Turns listing text and search queries into the same normalized, stemmed terms
+public final class TextAnalyzer {
+
+    // names weigh more than descriptions when ranking
+    private static final int NAME_WEIGHT = 2;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "has", "in", "is", "it",
+            "its", "of", "on", "or", "that", "the", "this", "to", "was", "were", "will", "with");
+
+    private TextAnalyzer() {
+    }
+
+    // lowercased words and numbers, before stemming
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String token = lower.substring(start, i);
+                if (!STOP_WORDS.contains(token) && (token.length() > 1 || Character.isDigit(token.charAt(0)))) {
+                    tokens.add(token);
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    public static List<String> analyze(String text) {
+        PorterStemmer stemmer = new PorterStemmer();
+        List<String> terms = new ArrayList<>();
+        for (String token : tokenize(text)) {
+            terms.add(stem(stemmer, token));
+        }
+        return terms;
+    }
+
+    // term -> weighted frequency for one listing
+    public static Map<String, Integer> termFrequencies(String name, String description) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : analyze(name)) {
+            frequencies.merge(term, NAME_WEIGHT, Integer::sum);
+        }
+        for (String term : analyze(description)) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        return frequencies;
+    }
+
+    private static String stem(PorterStemmer stemmer, String token) {
+        // model numbers and sizes ("i5", "256gb") are kept as typed
+        for (int i = 0; i < token.length(); i++) {
+            if (!Character.isLetter(token.charAt(i))) {
+                return token;
+            }
+        }
+        return stemmer.stem(token);
+    }
+}
@@ -0,0 +1,94 @@
+package com.nd.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Forward-decayed popularity of the listings of one university, plus the current top K.
+ * An event of weight w at time t adds w * 2^((t - t0) / halfLife) to a product's score; since every score
+ * is scaled by the same factor as time passes, this ranks exactly like a score decaying from "now",
+ * but nothing ever has to be rescored. Scores are kept as log2 to stay finite.
+ */
+public class TrendingBoard {
+
+    private final int capacity;
+    private final Map<Integer, Double> scores = new HashMap<>();
+    // highest score first, newer (higher) id first on ties
+    private final TreeSet<Integer> top;
+
+    public TrendingBoard(int capacity) {
+        this.capacity = capacity;
+        this.top = new TreeSet<>(Comparator.<Integer>comparingDouble(scores::get).reversed()
+                .thenComparing(Comparator.reverseOrder()));
+    }
+
+    // Starting score for a listing, ignored when it already has one
+    public synchronized void register(int productId, double logWeight) {
+        if (!scores.containsKey(productId)) {
+            add(productId, logWeight);
+        }
+    }
+
+    public synchronized void add(int productId, double logWeight) {
+        // the ordering reads the score, so a product leaves the set before its score changes
+        boolean member = scores.containsKey(productId) && top.remove(productId);
+        scores.merge(productId, logWeight, TrendingBoard::logAdd);
+        if (member || top.size() < capacity) {
+            top.add(productId);
+        } else if (top.comparator().compare(productId, top.last()) < 0) {
+            top.add(productId);
+            top.pollLast();
+        }
+    }
+
+    public synchronized void remove(int productId) {
+        boolean member = scores.containsKey(productId) && top.remove(productId);
+        scores.remove(productId);
+        if (member && scores.size() > top.size()) {
+            promoteBest();
+        }
+    }
+
+    public synchronized List<Integer> top(int offset, int limit) {
+        List<Integer> page = new ArrayList<>(limit);
+        int position = 0;
+        for (Integer productId : top) {
+            if (position++ < offset) {
+                continue;
+            }
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(productId);
+        }
+        return page;
+    }
+
+    public synchronized int size() {
+        return top.size();
+    }
+
+    // A slot opened up: the best listing outside the top K takes it
+    private void promoteBest() {
+        Integer best = null;
+        for (Integer productId : scores.keySet()) {
+            if (!top.contains(productId) && (best == null || top.comparator().compare(productId, best) < 0)) {
+                best = productId;
+            }
+        }
+        if (best != null) {
+            top.add(best);
+        }
+    }
+
+    // log2(2^a + 2^b) without leaving log space
+    public static double logAdd(double a, double b) {
+        double max = Math.max(a, b);
+        double min = Math.min(a, b);
+        return max + Math.log1p(Math.pow(2, min - max)) / Math.log(2);
+    }
+}
@@ -0,0 +1,10 @@
+package com.nd.service;
+
+import com.nd.dto.AutocompleteSuggestionDto;
+
+import java.util.List;
+
+public interface AutocompleteService {
+
+    List<AutocompleteSuggestionDto> complete(int universityId, String prefix, int limit);
+}
@@ -0,0 +1,11 @@
+package com.nd.service;
+
+import com.nd.dto.FacetFilterRequest;
+import com.nd.search.FacetHits;
+
+public interface FacetService {
+
+    boolean isReady();
+
+    FacetHits search(int universityId, FacetFilterRequest request, int offset, int limit);
+}
@@ -0,0 +1,22 @@
+package com.nd.service;
+
+import com.nd.dto.FeedCacheStatsDto;
+import com.nd.dto.ProductSortFilterRequest;
+
+import java.util.function.Supplier;
+
+public interface FeedCacheService {
+
+    // Returns the cached page for this university and request, or loads and caches it
+    <T> T getOrLoad(int universityId, ProductSortFilterRequest request, Supplier<T> loader);
+
+    // Same, for another rendering of the request (e.g. a candidate list) that must not share its entry
+    <T> T getOrLoad(int universityId, String view, ProductSortFilterRequest request, Supplier<T> loader);
+
+    void invalidate(int universityId);
+
+    // Changes whenever a cached page for this request could change, used as the feed ETag
+    String getFeedETag(int universityId, ProductSortFilterRequest request);
+
+    FeedCacheStatsDto getStats();
+}
@@ -0,0 +1,7 @@
+package com.nd.service;
+
+public interface ImageRenditionService {
+
+    // Queues every image of the product that has no renditions yet; returns immediately
+    void processProductImages(int productId);
+}
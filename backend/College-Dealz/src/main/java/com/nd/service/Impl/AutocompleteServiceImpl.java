@@ -0,0 +1,47 @@
+package com.nd.service.Impl;
+
+import com.nd.dto.AutocompleteSuggestionDto;
+import com.nd.dto.ProductSnapshot;
+import com.nd.search.AutocompleteTrie;
+import com.nd.search.ProductIndex;
+import com.nd.service.AutocompleteService;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class AutocompleteServiceImpl implements AutocompleteService, ProductIndex {
+
+    // distinct names + categories kept per campus; beyond this the least used phrases are dropped
+    private static final int MAX_PHRASES_PER_UNIVERSITY = 10_000;
+    private static final int MAX_SUGGESTIONS = AutocompleteTrie.MAX_COMPLETIONS;
+
+    private final Map<Integer, AutocompleteTrie> tries = new ConcurrentHashMap<>();
+
+    @Override
+    public List<AutocompleteSuggestionDto> complete(int universityId, String prefix, int limit) {
+        AutocompleteTrie trie = tries.get(universityId);
+        if (trie == null) {
+            return List.of();
+        }
+        return trie.complete(prefix, Math.max(1, Math.min(limit, MAX_SUGGESTIONS))).stream()
+                .map(entry -> new AutocompleteSuggestionDto(entry.getText(), entry.getCategory(), entry.getListingCount()))
+                .toList();
+    }
+
+    @Override
+    public void index(ProductSnapshot product) {
+        tries.computeIfAbsent(product.getUniversityId(), id -> new AutocompleteTrie(MAX_PHRASES_PER_UNIVERSITY))
+                .put(product.getId(), product.getName(), product.getCategory(), product.getPostDate());
+    }
+
+    @Override
+    public void remove(int universityId, int productId) {
+        AutocompleteTrie trie = tries.get(universityId);
+        if (trie != null) {
+            trie.remove(productId);
+        }
+    }
+}
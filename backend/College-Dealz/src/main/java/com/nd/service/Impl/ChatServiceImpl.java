@@ -11,6 +11,8 @@ import com.nd.repositories.ChatRepo;
 import com.nd.repositories.ProductRepo;
 import com.nd.repositories.UserRepo;
 import com.nd.service.ChatService;
+import com.nd.service.PersonalizationService;
+import com.nd.service.TrendingService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -31,6 +33,12 @@ public class ChatServiceImpl implements ChatService {
     @Autowired
     private ProductRepo productRepository;
 
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private PersonalizationService personalizationService;
+
     public ChatServiceImpl(ChatRepo chatRepository, UserRepo userRepository, ProductRepo productRepository) {
         this.chatRepository = chatRepository;
         this.userRepository = userRepository;
@@ -155,7 +163,10 @@ public class ChatServiceImpl implements ChatService {
             }
 
             Chat newChat = new Chat(sender, receiver, product);
-            return mapToDTO(chatRepository.save(newChat));
+            Chat savedChat = chatRepository.save(newChat);
+            trendingService.recordChat(productId);
+            personalizationService.invalidate(senderId);
+            return mapToDTO(savedChat);
         }
     }
 
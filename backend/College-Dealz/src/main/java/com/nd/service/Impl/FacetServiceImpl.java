@@ -0,0 +1,70 @@
+package com.nd.service.Impl;
+
+import com.nd.dto.FacetFilterRequest;
+import com.nd.dto.ProductSnapshot;
+import com.nd.search.Facet;
+import com.nd.search.FacetHits;
+import com.nd.search.FacetIndex;
+import com.nd.search.ProductIndex;
+import com.nd.service.FacetService;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class FacetServiceImpl implements FacetService, ProductIndex {
+
+    private final Map<Integer, FacetIndex> indexes = new ConcurrentHashMap<>();
+
+    private volatile boolean ready = false;
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public FacetHits search(int universityId, FacetFilterRequest request, int offset, int limit) {
+        Map<Facet, Set<String>> selection = new EnumMap<>(Facet.class);
+        select(selection, Facet.CATEGORY, request.getCategory());
+        select(selection, Facet.CONDITION, request.getCondition());
+        select(selection, Facet.PRICE, request.getPrice());
+        select(selection, Facet.AGE, request.getAge());
+        select(selection, Facet.STATUS, request.getStatus());
+
+        // a campus with no listings yet still gets every facet with zero counts
+        return indexes.getOrDefault(universityId, new FacetIndex()).search(selection, offset, limit);
+    }
+
+    @Override
+    public void index(ProductSnapshot product) {
+        indexes.computeIfAbsent(product.getUniversityId(), id -> new FacetIndex()).put(product);
+    }
+
+    @Override
+    public void remove(int universityId, int productId) {
+        FacetIndex index = indexes.get(universityId);
+        if (index != null) {
+            index.remove(productId);
+        }
+    }
+
+    @Override
+    public void loaded() {
+        ready = true;
+    }
+
+    private static void select(Map<Facet, Set<String>> selection, Facet facet, List<String> values) {
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+        Set<String> normalized = new LinkedHashSet<>();
+        values.forEach(value -> normalized.add(facet.normalize(value)));
+        selection.put(facet, normalized);
+    }
+}
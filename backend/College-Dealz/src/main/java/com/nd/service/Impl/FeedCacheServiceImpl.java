@@ -0,0 +1,175 @@
+package com.nd.service.Impl;
+
+import com.nd.dto.FeedCacheStatsDto;
+import com.nd.dto.ProductSortFilterRequest;
+import com.nd.enums.ProductSortField;
+import com.nd.events.ProductChangedEvent;
+import com.nd.service.FeedCacheService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU of rendered university feed pages. Entries are grouped per university so a product change
+ * drops only that campus's pages, and a per-university version stops a page loaded before the change
+ * from being stored after it.
+ */
+@Service
+public class FeedCacheServiceImpl implements FeedCacheService {
+
+    private final int maxEntries;
+
+    // versions restart at 0 with the process, so tags carry the boot time too
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+
+    private final LinkedHashMap<FeedKey, Object> pages;
+    private final Map<Integer, Set<FeedKey>> keysByUniversity = new HashMap<>();
+    private final Map<Integer, Long> versions = new HashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public FeedCacheServiceImpl(@Value("${feed.cache.max-entries:2000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        // access order: the least recently served page is evicted first
+        this.pages = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<FeedKey, Object> eldest) {
+                if (size() <= FeedCacheServiceImpl.this.maxEntries) {
+                    return false;
+                }
+                forget(eldest.getKey());
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    @Override
+    public <T> T getOrLoad(int universityId, ProductSortFilterRequest request, Supplier<T> loader) {
+        return getOrLoad(universityId, request.isCursorMode() ? "cursor" : "offset", request, loader);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getOrLoad(int universityId, String view, ProductSortFilterRequest request, Supplier<T> loader) {
+        FeedKey key = new FeedKey(universityId, view + "|" + describe(request));
+        long version;
+        synchronized (this) {
+            Object cached = pages.get(key);
+            if (cached != null) {
+                hits.increment();
+                return (T) cached;
+            }
+            misses.increment();
+            version = versions.getOrDefault(universityId, 0L);
+        }
+
+        // loaded outside the lock so one slow query does not block every other feed
+        T page = loader.get();
+
+        synchronized (this) {
+            if (page != null && versions.getOrDefault(universityId, 0L) == version) {
+                pages.put(key, page);
+                keysByUniversity.computeIfAbsent(universityId, id -> new HashSet<>()).add(key);
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public synchronized void invalidate(int universityId) {
+        versions.merge(universityId, 1L, Long::sum);
+        Set<FeedKey> keys = keysByUniversity.remove(universityId);
+        if (keys != null) {
+            keys.forEach(pages::remove);
+        }
+        invalidations.increment();
+    }
+
+    @Override
+    public String getFeedETag(int universityId, ProductSortFilterRequest request) {
+        long version;
+        synchronized (this) {
+            version = versions.getOrDefault(universityId, 0L);
+        }
+        return "f-" + bootId + "-" + universityId + "-" + version + "-" + Integer.toHexString(describe(request).hashCode());
+    }
+
+    // After commit, so the next read of this campus sees the change
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidate(event.getUniversityId());
+    }
+
+    @Override
+    public synchronized FeedCacheStatsDto getStats() {
+        long hitCount = hits.sum();
+        long lookups = hitCount + misses.sum();
+        return new FeedCacheStatsDto(pages.size(), maxEntries, hitCount, misses.sum(), evictions.sum(),
+                invalidations.sum(), lookups == 0 ? 0.0 : (double) hitCount / lookups);
+    }
+
+    private void forget(FeedKey key) {
+        Set<FeedKey> keys = keysByUniversity.get(key.universityId);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                keysByUniversity.remove(key.universityId);
+            }
+        }
+    }
+
+    // Canonical form of everything that changes the result, so equivalent requests share one entry
+    private static String describe(ProductSortFilterRequest request) {
+        return String.join("|",
+                String.valueOf(request.isCursorMode()),
+                ProductSortField.from(request.getSortField()).name(),
+                "desc".equalsIgnoreCase(request.getSortDir()) ? "DESC" : "ASC",
+                String.valueOf(request.getPage() != null && request.getPage() >= 0 ? request.getPage() : 0),
+                String.valueOf(request.getSize() != null && request.getSize() > 0 ? request.getSize() : 10),
+                String.valueOf(request.getCategory()),
+                request.getMinPrice() != null ? request.getMinPrice().stripTrailingZeros().toPlainString() : "",
+                request.getMaxPrice() != null ? request.getMaxPrice().stripTrailingZeros().toPlainString() : "",
+                String.valueOf(request.getCondition()),
+                String.valueOf(request.getMonthsOld()),
+                String.valueOf(request.getStatus()),
+                String.valueOf(request.getSearchTerm()),
+                String.valueOf(request.getCursor()));
+    }
+
+    private static final class FeedKey {
+
+        private final int universityId;
+        private final String request;
+
+        private FeedKey(int universityId, String request) {
+            this.universityId = universityId;
+            this.request = request;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof FeedKey)) return false;
+            FeedKey other = (FeedKey) o;
+            return universityId == other.universityId && request.equals(other.request);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(universityId, request);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.nd.service.Impl;
+
+import com.nd.dto.ProductSortFilterRequest;
+import com.nd.repositories.ProductRepo;
+import com.nd.service.ProductService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Loads the default feed of the busiest campuses, so the first visitors after a deploy do not all miss
+@Component
+public class FeedCacheWarmer {
+
+    private static final int WARM_UP_UNIVERSITIES = 10;
+    private static final int WARM_UP_PAGES = 2;
+
+    private final Logger logger = LoggerFactory.getLogger(FeedCacheWarmer.class);
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private ProductService productService;
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<Integer> universityIds = productRepo.findUniversityIdsByListingCount(PageRequest.of(0, WARM_UP_UNIVERSITIES));
+        for (Integer universityId : universityIds) {
+            for (int page = 0; page < WARM_UP_PAGES; page++) {
+                ProductSortFilterRequest request = new ProductSortFilterRequest();
+                request.setPage(page);
+                productService.getProductsByUniversityId(universityId, request);
+            }
+        }
+        logger.info("Warmed feed cache for {} universities", universityIds.size());
+    }
+}
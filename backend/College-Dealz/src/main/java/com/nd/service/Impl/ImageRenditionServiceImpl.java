@@ -0,0 +1,304 @@
+package com.nd.service.Impl;
+
+import com.nd.enums.Rendition;
+import com.nd.events.ProductChangedEvent;
+import com.nd.service.FeedCacheService;
+import com.nd.service.ImageRenditionService;
+import com.nd.service.S3ImageService;
+import com.nd.utils.BlurHash;
+import com.nd.utils.ExifOrientation;
+import com.nd.utils.ImageRenditions;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds the thumbnail, card and full renditions of uploaded images off the request thread. Image rows only
+ * exist once the listing transaction commits, so work is queued from the after-commit ProductChangedEvent
+ * (and by ImageServiceImpl for single uploads); a periodic sweep picks up whatever was missed, including
+ * images uploaded before renditions existed. Each original is downloaded to a temp file, decoded once,
+ * and every rendition is scaled from the next larger one, oriented upright and re-encoded without metadata.
+ * The thumbnail also yields a BlurHash placeholder that cards can paint before any image has loaded.
+ */
+@Service
+public class ImageRenditionServiceImpl implements ImageRenditionService {
+
+    // args: max attempts, then the cutoff before which a failed image may be tried again
+    private static final String PENDING_SQL = "SELECT image_id, s3_url FROM image WHERE s3_url IS NOT NULL AND s3_url <> '' " +
+            "AND thumbnail_url IS NULL AND rendition_attempts < ? AND (renditions_failed_at IS NULL OR renditions_failed_at < ?)";
+    private static final String STORE_SQL = "UPDATE image SET thumbnail_url = ?, card_url = ?, full_url = ?, blur_hash = ?, " +
+            "updated_at = ? WHERE image_id = ? AND s3_url = ?";
+    // images that got their renditions before placeholders existed; the thumbnail is enough to compute one
+    private static final String PLACEHOLDER_PENDING_SQL = "SELECT image_id, thumbnail_url FROM image " +
+            "WHERE thumbnail_url IS NOT NULL AND blur_hash IS NULL AND placeholder_failed_at IS NULL ORDER BY image_id LIMIT ";
+    private static final String STORE_PLACEHOLDER_SQL = "UPDATE image SET blur_hash = ? WHERE image_id = ? AND thumbnail_url = ?";
+    private static final String PLACEHOLDER_FAILED_SQL = "UPDATE image SET placeholder_failed_at = ? WHERE image_id = ?";
+    private static final String OWNER_SQL = "SELECT p.product_id, p.university_id FROM image i " +
+            "JOIN products p ON p.product_id = i.product_id WHERE i.image_id = ?";
+    private static final String TOUCH_PRODUCT_SQL = "UPDATE products SET updated_at = ? WHERE product_id = ?";
+    private static final String FAILED_SQL = "UPDATE image SET renditions_failed_at = ?, rendition_attempts = rendition_attempts + 1 " +
+            "WHERE image_id = ?";
+    // an undecodable file fails the same way every time, so it uses up all its attempts at once
+    private static final String UNDECODABLE_SQL = "UPDATE image SET renditions_failed_at = ?, rendition_attempts = ? WHERE image_id = ?";
+    // rows share an S3 object (and so its renditions) when the same bytes were uploaded again
+    private static final String SHARED_SQL = "SELECT thumbnail_url, card_url, full_url, blur_hash FROM image " +
+            "WHERE s3_url = ? AND thumbnail_url IS NOT NULL LIMIT 1";
+
+    private static final int SWEEP_BATCH = 200;
+    private static final int QUEUE_CAPACITY = 500;
+
+    // 4x3 components is ~28 characters, plenty for a card-sized blur; computed from a 32px copy
+    private static final int BLUR_COMPONENTS_X = 4;
+    private static final int BLUR_COMPONENTS_Y = 3;
+    private static final int BLUR_SOURCE_EDGE = 32;
+
+    private final Logger logger = LoggerFactory.getLogger(ImageRenditionServiceImpl.class);
+
+    @Autowired
+    private S3ImageService s3ImageService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private FeedCacheService feedCacheService;
+
+    // decoding a phone photo takes tens of MB, so only a couple run at once
+    @Value("${images.renditions.threads:2}")
+    private int threads;
+
+    @Value("${images.renditions.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${images.renditions.retry-delay-ms:900000}")
+    private long retryDelayMs;
+
+    private ThreadPoolExecutor executor;
+
+    // images queued or being processed, so the event path and the sweep never do the same one twice
+    private final Set<Integer> inFlight = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void start() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-rendition-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isLive()) {
+            processProductImages(event.getProduct().getId());
+        }
+    }
+
+    @Override
+    public void processProductImages(int productId) {
+        queue(jdbcTemplate.queryForList(PENDING_SQL + " AND product_id = ?", maxAttempts, retryCutoff(), productId));
+    }
+
+    // images that keep failing are skipped while they wait out the retry delay, so they cannot fill every batch
+    @Scheduled(fixedDelayString = "${images.renditions.sweep-interval-ms:300000}")
+    public void sweep() {
+        queue(jdbcTemplate.queryForList(PENDING_SQL + " ORDER BY image_id LIMIT " + SWEEP_BATCH, maxAttempts, retryCutoff()));
+    }
+
+    private Timestamp retryCutoff() {
+        return Timestamp.from(Instant.now().minusMillis(retryDelayMs));
+    }
+
+    // Backfill for images that already have renditions but no placeholder; SWEEP_BATCH images per run
+    @Scheduled(fixedDelayString = "${images.placeholders.backfill-interval-ms:60000}")
+    public void backfillPlaceholders() {
+        for (Map<String, Object> row : jdbcTemplate.queryForList(PLACEHOLDER_PENDING_SQL + SWEEP_BATCH)) {
+            int imageId = ((Number) row.get("image_id")).intValue();
+            String thumbnailUrl = (String) row.get("thumbnail_url");
+            submit(imageId, () -> processPlaceholder(imageId, thumbnailUrl));
+        }
+    }
+
+    private void queue(List<Map<String, Object>> images) {
+        for (Map<String, Object> row : images) {
+            int imageId = ((Number) row.get("image_id")).intValue();
+            String s3Url = (String) row.get("s3_url");
+            submit(imageId, () -> process(imageId, s3Url));
+        }
+    }
+
+    private void submit(int imageId, Runnable task) {
+        if (!inFlight.add(imageId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    inFlight.remove(imageId);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            // queue is full; the sweep comes back for it
+            inFlight.remove(imageId);
+        }
+    }
+
+    private void process(int imageId, String s3Url) {
+        String key = S3ImageService.keyFromUrl(s3Url);
+        Path original = null;
+        try {
+            List<Map<String, Object>> shared = jdbcTemplate.queryForList(SHARED_SQL, s3Url);
+            if (!shared.isEmpty()) {
+                Map<String, Object> existing = shared.get(0);
+                if (jdbcTemplate.update(STORE_SQL, existing.get("thumbnail_url"), existing.get("card_url"), existing.get("full_url"),
+                        existing.get("blur_hash"), Timestamp.from(Instant.now()), imageId, s3Url) > 0) {
+                    touchProduct(imageId);
+                }
+                return;
+            }
+
+            original = Files.createTempFile("rendition-", null);
+            s3ImageService.downloadTo(key, original);
+
+            int orientation;
+            BufferedImage source;
+            try (InputStream header = Files.newInputStream(original)) {
+                orientation = ExifOrientation.read(header);
+                source = ImageRenditions.decode(original.toFile(), Rendition.FULL.getMaxEdge());
+            } catch (IOException ex) {
+                source = null;
+                orientation = ExifOrientation.NORMAL;
+            }
+            if (source == null) {
+                logger.warn("Image {} ({}) is not a decodable image; no renditions", imageId, key);
+                jdbcTemplate.update(UNDECODABLE_SQL, Timestamp.from(Instant.now()), maxAttempts, imageId);
+                return;
+            }
+
+            Map<Rendition, String> urls = new EnumMap<>(Rendition.class);
+            Rendition[] largestFirst = {Rendition.FULL, Rendition.CARD, Rendition.THUMBNAIL};
+            BufferedImage scaled = source;
+            BufferedImage thumbnail = null;
+            for (Rendition rendition : largestFirst) {
+                scaled = ImageRenditions.scale(scaled, rendition.getMaxEdge());
+                String renditionKey = S3ImageService.renditionKey(key, rendition);
+                BufferedImage oriented = ImageRenditions.orient(scaled, orientation);
+                urls.put(rendition, s3ImageService.uploadRendition(renditionKey, ImageRenditions.encodeJpeg(oriented)));
+                thumbnail = oriented;
+            }
+
+            // no row updated means the image was removed meanwhile; the renditions go with the original's last reference
+            if (jdbcTemplate.update(STORE_SQL, urls.get(Rendition.THUMBNAIL), urls.get(Rendition.CARD),
+                    urls.get(Rendition.FULL), placeholder(thumbnail), Timestamp.from(Instant.now()), imageId, s3Url) > 0) {
+                touchProduct(imageId);
+            }
+        } catch (IOException | RuntimeException ex) {
+            // left pending: the sweep retries it after the delay, until it runs out of attempts
+            logger.warn("Building renditions for image {} failed", imageId, ex);
+            markFailed(imageId);
+        } finally {
+            deleteTempFile(original);
+        }
+    }
+
+    private void markFailed(int imageId) {
+        try {
+            jdbcTemplate.update(FAILED_SQL, Timestamp.from(Instant.now()), imageId);
+        } catch (RuntimeException ex) {
+            logger.warn("Could not record the failed renditions of image {}", imageId, ex);
+        }
+    }
+
+    private void processPlaceholder(int imageId, String thumbnailUrl) {
+        Path thumbnail = null;
+        try {
+            thumbnail = Files.createTempFile("placeholder-", null);
+            s3ImageService.downloadTo(S3ImageService.keyFromUrl(thumbnailUrl), thumbnail);
+            // renditions are stored upright, so there is no orientation to apply
+            BufferedImage image = ImageRenditions.decode(thumbnail.toFile(), Rendition.THUMBNAIL.getMaxEdge());
+            if (image == null) {
+                logger.warn("Thumbnail of image {} is not a decodable image; no placeholder", imageId);
+                markPlaceholderFailed(imageId);
+            } else if (jdbcTemplate.update(STORE_PLACEHOLDER_SQL, placeholder(image), imageId, thumbnailUrl) > 0) {
+                touchProduct(imageId);
+            }
+        } catch (IOException | RuntimeException ex) {
+            // a missing thumbnail stays missing; cards simply go without a placeholder
+            logger.warn("Building the placeholder for image {} failed", imageId, ex);
+            markPlaceholderFailed(imageId);
+        } finally {
+            deleteTempFile(thumbnail);
+        }
+    }
+
+    private void markPlaceholderFailed(int imageId) {
+        try {
+            jdbcTemplate.update(PLACEHOLDER_FAILED_SQL, Timestamp.from(Instant.now()), imageId);
+        } catch (RuntimeException ex) {
+            logger.warn("Could not record the failed placeholder of image {}", imageId, ex);
+        }
+    }
+
+    // New image URLs or placeholders change the product's responses: bump updated_at, which the product ETag is keyed on, and drop
+    // the campus's cached feed pages. Deliberately no ProductChangedEvent, which would also reindex the listing.
+    private void touchProduct(int imageId) {
+        List<Map<String, Object>> owner = jdbcTemplate.queryForList(OWNER_SQL, imageId);
+        if (owner.isEmpty()) {
+            return;
+        }
+        int productId = ((Number) owner.get(0).get("product_id")).intValue();
+        int universityId = ((Number) owner.get(0).get("university_id")).intValue();
+        jdbcTemplate.update(TOUCH_PRODUCT_SQL, Timestamp.from(Instant.now()), productId);
+        feedCacheService.invalidate(universityId);
+    }
+
+    private static String placeholder(BufferedImage image) {
+        return BlurHash.encode(ImageRenditions.scale(image, BLUR_SOURCE_EDGE), BLUR_COMPONENTS_X, BLUR_COMPONENTS_Y);
+    }
+
+    private void deleteTempFile(Path file) {
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ex) {
+                logger.warn("Could not delete temp file {}", file, ex);
+            }
+        }
+    }
+}
@@ -3,10 +3,15 @@ package com.nd.service.Impl;
 import com.nd.dto.ImageDto;
 import com.nd.entities.Image;
 import com.nd.entities.Product;
+import com.nd.enums.ProductStatus;
+import com.nd.events.ProductChangedEvent;
 import com.nd.repositories.ImageRepo;
 import com.nd.repositories.ProductRepo;
+import com.nd.service.ImageRenditionService;
 import com.nd.service.ImageService;
+import com.nd.service.S3ImageService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -24,6 +29,15 @@ public class ImageServiceImpl implements ImageService {
     @Autowired
     private ProductRepo productRepo;
 
+    @Autowired
+    private S3ImageService s3ImageService;
+
+    @Autowired
+    private ImageRenditionService imageRenditionService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     public ImageDto uploadImage(Integer productId, MultipartFile imageFile) {
         Product product = productRepo.findById(productId)
@@ -35,16 +49,28 @@ public class ImageServiceImpl implements ImageService {
         image.setProduct(product);
         image.setFileName(fileName);
         image.setContentType(imageFile.getContentType());
+        // Streamed to S3 rather than copied into the image_data column
+        String s3Url;
         try {
-            image.setImageData(imageFile.getBytes());
+            s3Url = s3ImageService.uploadImage(imageFile);
         } catch (IOException e) {
             throw new RuntimeException("Error processing image file", e);
         }
+        image.setS3Url(s3Url);
 
         image.setCreatedAt(Instant.now());
         image.setUpdatedAt(Instant.now());
 
-        Image savedImage = imageRepo.save(image);
+        // only a failed save gives the reference back; once the row is committed it owns it
+        Image savedImage;
+        try {
+            savedImage = imageRepo.save(image);
+        } catch (RuntimeException e) {
+            s3ImageService.releaseImages(List.of(s3Url));
+            throw e;
+        }
+        markProductUpdated(productId);
+        imageRenditionService.processProductImages(productId);
         return toDto(savedImage);
     }
 
@@ -63,10 +89,24 @@ public class ImageServiceImpl implements ImageService {
 
     @Override
     public void deleteImageById(Integer id) {
-        if (!imageRepo.existsById(id)) {
-            throw new RuntimeException("Image not found with ID: " + id);
+        Image image = imageRepo.findById(id)
+                .orElseThrow(() -> new RuntimeException("Image not found with ID: " + id));
+        imageRepo.delete(image);
+        if (image.getS3Url() != null) {
+            s3ImageService.releaseImages(List.of(image.getS3Url()));
         }
-        imageRepo.deleteById(id);
+        markProductUpdated(image.getProduct().getId());
+    }
+
+    // A changed image list alters the cover, image count and ETag like any other edit: bump updatedAt and, for a
+    // live listing, publish UPDATED so the feed cache and indexes pick it up. The product loaded before the upload
+    // is never saved back: it may have been sold, relisted or deleted in the meantime.
+    private void markProductUpdated(int productId) {
+        productRepo.touch(productId, Instant.now());
+        productRepo.findSnapshotById(productId)
+                .filter(snapshot -> ProductStatus.LIVE.contains(snapshot.getStatus()))
+                .ifPresent(snapshot -> eventPublisher.publishEvent(
+                        new ProductChangedEvent(ProductChangedEvent.Type.UPDATED, snapshot)));
     }
 
     // Convert Entity to DTO
@@ -77,6 +117,10 @@ public class ImageServiceImpl implements ImageService {
         dto.setFileName(image.getFileName());
         dto.setContentType(image.getContentType());
         dto.setS3Url(image.getS3Url());
+        dto.setThumbnailUrl(image.getThumbnailUrl());
+        dto.setCardUrl(image.getCardUrl());
+        dto.setFullUrl(image.getFullUrl());
+        dto.setBlurHash(image.getBlurHash());
         dto.setImageData(image.getImageData());
         return dto;
     }
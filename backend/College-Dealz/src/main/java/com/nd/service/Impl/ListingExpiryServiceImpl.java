@@ -0,0 +1,135 @@
+package com.nd.service.Impl;
+
+import com.nd.dto.ProductSnapshot;
+import com.nd.enums.NotificationType;
+import com.nd.enums.ReferenceType;
+import com.nd.events.ProductChangedEvent;
+import com.nd.repositories.ProductRepo;
+import com.nd.service.ListingExpiryService;
+import com.nd.service.NotificationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Closes listings that have been up for listing.expiry.days without being sold, relisted or removed.
+ * Every listing carries its own expires_at, so each tick is two range scans on (status, expires_at)
+ * that only touch listings actually due: one for reminders, one for expiry. Expired listings get
+ * status EXPIRED and are moved into archived_products by ProductArchivalServiceImpl like any closed listing.
+ */
+@Service
+public class ListingExpiryServiceImpl implements ListingExpiryService {
+
+    private static final int BATCH_SIZE = 200;
+
+    // never earlier than the reminder window plus a grace period from now, so an old listing is not taken
+    // down by the first scan without its seller having been warned
+    private static final String BACKFILL_SQL =
+            "UPDATE products SET expires_at = GREATEST(DATE_ADD(COALESCE(post_date, created_at, NOW()), INTERVAL ? DAY), " +
+            "DATE_ADD(NOW(), INTERVAL ? DAY)) WHERE expires_at IS NULL";
+
+    private final Logger logger = LoggerFactory.getLogger(ListingExpiryServiceImpl.class);
+
+    @Value("${listing.expiry.days:60}")
+    private int expiryDays;
+
+    @Value("${listing.expiry.reminder-days:3}")
+    private int reminderDays;
+
+    @Value("${listing.expiry.backfill-grace-days:7}")
+    private int backfillGraceDays;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Override
+    public Instant expiresAt(Instant postedAt) {
+        return postedAt.plus(Duration.ofDays(expiryDays));
+    }
+
+    // Listings posted before expiry existed get a deadline counted from their post date, or one that still
+    // leaves room for the reminder when that date has already passed
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillDeadlines() {
+        int updated = jdbcTemplate.update(BACKFILL_SQL, expiryDays, reminderDays + backfillGraceDays);
+        if (updated > 0) {
+            logger.info("Set expiry dates on {} existing listings", updated);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${listing.expiry.scan-interval-ms:300000}")
+    public int processDueListings() {
+        Instant now = Instant.now();
+        int reminded = 0;
+        int sent;
+        do {
+            sent = transactionTemplate.execute(status -> sendReminders(now));
+            reminded += sent;
+        } while (sent == BATCH_SIZE);
+
+        int expired = 0;
+        int closed;
+        do {
+            closed = transactionTemplate.execute(status -> expireBatch(now));
+            expired += closed;
+        } while (closed == BATCH_SIZE);
+
+        if (reminded > 0 || expired > 0) {
+            logger.info("Listing expiry: {} reminders sent, {} listings expired", reminded, expired);
+        }
+        return expired;
+    }
+
+    private int sendReminders(Instant now) {
+        List<ProductSnapshot> due = productRepo.findNeedingExpiryReminder(
+                now, now.plus(Duration.ofDays(reminderDays)), PageRequest.of(0, BATCH_SIZE));
+        if (due.isEmpty()) {
+            return 0;
+        }
+        for (ProductSnapshot product : due) {
+            notificationService.createNotificationForUser(product.getSellerId(),
+                    product.getName() + " expires in " + reminderDays + " days",
+                    "Your listing will be taken down soon. Relist it if it is still available.",
+                    NotificationType.SYSTEM_NOTIFICATION, ReferenceType.PRODUCT_ITEM, product.getId());
+        }
+        productRepo.markExpiryReminderSent(due.stream().map(ProductSnapshot::getId).toList(), now);
+        return due.size();
+    }
+
+    private int expireBatch(Instant now) {
+        List<ProductSnapshot> due = productRepo.findExpired(now, PageRequest.of(0, BATCH_SIZE));
+        if (due.isEmpty()) {
+            return 0;
+        }
+        productRepo.expire(due.stream().map(ProductSnapshot::getId).toList(), now);
+        // indexes and the feed cache drop the listings once the batch commits
+        due.forEach(product -> eventPublisher.publishEvent(new ProductChangedEvent(ProductChangedEvent.Type.EXPIRED, product)));
+        return due.size();
+    }
+}
@@ -0,0 +1,103 @@
+package com.nd.service.Impl;
+
+import com.nd.dto.ProductCardDto;
+import com.nd.enums.Category;
+import com.nd.repositories.ChatRepo;
+import com.nd.repositories.WantlistRepo;
+import com.nd.repositories.WishlistRepository;
+import com.nd.search.AffinityProfile;
+import com.nd.service.PersonalizationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+public class PersonalizationServiceImpl implements PersonalizationService {
+
+    private static final int MAX_PROFILES = 10_000;
+    // profiles are also dropped on every signal change; this only bounds drift from other writers
+    private static final Duration PROFILE_TTL = Duration.ofMinutes(30);
+
+    // how strongly each signal says "I want this kind of thing"
+    private static final double WANTLIST_WEIGHT = 4;
+    private static final double WISHLIST_WEIGHT = 3;
+    private static final double CHAT_WEIGHT = 2;
+
+    @Autowired
+    private WishlistRepository wishlistRepository;
+
+    @Autowired
+    private WantlistRepo wantlistRepo;
+
+    @Autowired
+    private ChatRepo chatRepo;
+
+    private final Map<Integer, AffinityProfile> profiles = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, AffinityProfile> eldest) {
+            return size() > MAX_PROFILES;
+        }
+    };
+
+    @Override
+    public List<ProductCardDto> rank(int userId, List<ProductCardDto> candidates) {
+        AffinityProfile profile = getProfile(userId);
+        Instant now = Instant.now();
+
+        // scores computed once per candidate, not once per comparison
+        Map<ProductCardDto, Double> scores = candidates.stream()
+                .filter(card -> card.getSellerId() == null || card.getSellerId() != userId)
+                .collect(Collectors.toMap(card -> card, card -> profile.score(card, now), (a, b) -> a, LinkedHashMap::new));
+
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<ProductCardDto, Double>comparingByValue().reversed()
+                        .thenComparing(entry -> entry.getKey().getId(), Comparator.reverseOrder()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public synchronized void invalidate(int userId) {
+        profiles.remove(userId);
+    }
+
+    private AffinityProfile getProfile(int userId) {
+        synchronized (this) {
+            AffinityProfile cached = profiles.get(userId);
+            if (cached != null && cached.getBuiltAt().plus(PROFILE_TTL).isAfter(Instant.now())) {
+                return cached;
+            }
+        }
+        AffinityProfile profile = buildProfile(userId);
+        synchronized (this) {
+            profiles.put(userId, profile);
+        }
+        return profile;
+    }
+
+    // Three narrow projections; no product entities (and their eager images) are loaded
+    private AffinityProfile buildProfile(int userId) {
+        AffinityProfile.Builder builder = new AffinityProfile.Builder();
+        for (Object[] row : wantlistRepo.findCategoryAndPriceRangeByUserId(userId)) {
+            int priceMin = row[1] != null ? (Integer) row[1] : 0;
+            int priceMax = row[2] != null ? (Integer) row[2] : 0;
+            BigDecimal wanted = priceMax > 0 ? BigDecimal.valueOf((priceMin + priceMax) / 2.0) : null;
+            builder.add((Category) row[0], wanted, WANTLIST_WEIGHT);
+        }
+        for (Object[] row : wishlistRepository.findCategoryAndPriceByUserId(userId)) {
+            builder.add((Category) row[0], (BigDecimal) row[1], WISHLIST_WEIGHT);
+        }
+        for (Object[] row : chatRepo.findCategoryAndPriceOfChatsStartedBy(userId)) {
+            builder.add((Category) row[0], (BigDecimal) row[1], CHAT_WEIGHT);
+        }
+        return builder.build(Instant.now());
+    }
+}
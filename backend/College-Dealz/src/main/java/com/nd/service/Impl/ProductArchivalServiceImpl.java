@@ -0,0 +1,155 @@
+package com.nd.service.Impl;
+
+import com.nd.entities.ArchivedProducts;
+import com.nd.entities.Product;
+import com.nd.repositories.ArchivedProductsRepo;
+import com.nd.repositories.ImageRepo;
+import com.nd.repositories.ProductRepo;
+import com.nd.service.ProductArchivalService;
+import com.nd.service.S3ImageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Background half of closing a listing. Requests only flip Product.status (see ProductServiceImpl.closeListing);
+ * this job copies closed rows into archived_products and deletes them, cascading through images, wishlists,
+ * chats and messages, one batch per transaction. The products table is left holding live listings only.
+ * The S3 references of the deleted image rows are released once each batch has committed. A batch that fails is
+ * retried row by row, and a row that still fails gets archive_failed_at set so it no longer blocks the rows behind it.
+ */
+@Service
+public class ProductArchivalServiceImpl implements ProductArchivalService {
+
+    private static final int BATCH_SIZE = 100;
+
+    private final Logger logger = LoggerFactory.getLogger(ProductArchivalServiceImpl.class);
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private ArchivedProductsRepo archivedProductsRepo;
+
+    @Autowired
+    private ImageRepo imageRepo;
+
+    @Autowired
+    private S3ImageService s3ImageService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Override
+    @Scheduled(fixedDelayString = "${archive.interval-ms:60000}")
+    public int archiveClosedListings() {
+        int archived = 0;
+        int moved;
+        do {
+            List<Integer> ids = new ArrayList<>();
+            List<String> s3Urls = new ArrayList<>();
+            try {
+                moved = transactionTemplate.execute(status -> archiveBatch(ids, s3Urls));
+                archived += moved;
+                // after the commit: released earlier, a rollback would leave image rows pointing at collected objects
+                releaseImages(s3Urls);
+            } catch (RuntimeException ex) {
+                // one bad row rolls the whole batch back and would head every later batch too
+                logger.warn("Archiving a batch of {} closed listings failed, retrying them one by one", ids.size(), ex);
+                moved = ids.size();
+                for (Integer id : ids) {
+                    archived += archiveOne(id);
+                }
+            }
+        } while (moved == BATCH_SIZE);
+
+        if (archived > 0) {
+            logger.info("Archived {} closed listings", archived);
+        }
+        return archived;
+    }
+
+    private int archiveBatch(List<Integer> ids, List<String> s3Urls) {
+        List<Product> closed = productRepo.findClosed(PageRequest.of(0, BATCH_SIZE));
+        if (closed.isEmpty()) {
+            return 0;
+        }
+        closed.forEach(product -> ids.add(product.getId()));
+        s3Urls.addAll(imageRepo.findS3UrlsByProductIds(ids));
+        archivedProductsRepo.saveAll(closed.stream().map(this::toArchived).toList());
+        productRepo.deleteAll(closed);
+        return closed.size();
+    }
+
+    // Returns 1 when the row was archived; a row that fails is marked so findClosed no longer returns it
+    private int archiveOne(int productId) {
+        List<String> s3Urls = new ArrayList<>();
+        try {
+            Integer moved = transactionTemplate.execute(status -> productRepo.findById(productId)
+                    .map(product -> {
+                        s3Urls.addAll(imageRepo.findS3UrlsByProductIds(List.of(productId)));
+                        archivedProductsRepo.save(toArchived(product));
+                        productRepo.delete(product);
+                        return 1;
+                    })
+                    .orElse(0));
+            releaseImages(s3Urls);
+            return moved;
+        } catch (RuntimeException ex) {
+            logger.error("Archiving closed listing {} failed, marking it and skipping it from now on", productId, ex);
+            transactionTemplate.executeWithoutResult(status -> productRepo.markArchiveFailed(productId, Instant.now()));
+            return 0;
+        }
+    }
+
+    // A failure here leaks references (objects are kept), it never frees bytes that are still in use
+    private void releaseImages(List<String> s3Urls) {
+        if (s3Urls.isEmpty()) {
+            return;
+        }
+        try {
+            s3ImageService.releaseAll(s3Urls);
+        } catch (RuntimeException ex) {
+            logger.warn("Releasing {} image references of archived listings failed", s3Urls.size(), ex);
+        }
+    }
+
+    private ArchivedProducts toArchived(Product product) {
+        ZoneId zone = ZoneId.systemDefault();
+        Instant changedAt = product.getStatusChangedAt() != null ? product.getStatusChangedAt() : Instant.now();
+        Instant listedAt = product.getCreatedAt() != null ? product.getCreatedAt()
+                : product.getPostDate() != null ? product.getPostDate() : changedAt;
+        LocalDateTime listingDate = LocalDateTime.ofInstant(listedAt, zone);
+        LocalDateTime statusChangeDate = LocalDateTime.ofInstant(changedAt, zone);
+
+        ArchivedProducts archived = new ArchivedProducts();
+        archived.setOriginalProductId(product.getId());
+        archived.setTitle(product.getName());
+        archived.setDescription(product.getDescription());
+        archived.setCategory(product.getCategory());
+        archived.setPrice(product.getPrice());
+        archived.setFinalSoldPrice(product.getFinalSoldPrice());
+        archived.setSellerId(product.getSeller().getId());
+        archived.setUniversityId(product.getUniversity().getId());
+        archived.setListingDate(listingDate);
+        archived.setStatusChangeDate(statusChangeDate);
+        archived.setStatus(product.getStatus());
+        archived.setReasonForRemoval(product.getReasonForRemoval());
+        archived.setSoldToCollegeStudent(Boolean.TRUE.equals(product.getSoldToCollegeStudent()));
+        // days between listing and closing
+        archived.setDealCompletionTime(ChronoUnit.DAYS.between(listingDate, statusChangeDate));
+        archived.setArchivePartition(statusChangeDate.getYear() * 100 + statusChangeDate.getMonthValue());
+        return archived;
+    }
+}
@@ -0,0 +1,151 @@
+package com.nd.service.Impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.nd.dto.ProductDto;
+import com.nd.enums.Category;
+import com.nd.enums.Condition;
+import com.nd.service.ProductExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Base64;
+
+/**
+ * Exports the live products without materializing them: a single forward-only query with a streaming
+ * fetch size, one row per product image, folded back into one ProductDto per product and written
+ * immediately. Only the product being assembled is ever held in memory.
+ */
+@Service
+public class ProductExportServiceImpl implements ProductExportService {
+
+    // images come in the same statement: a MySQL connection cannot run other queries while a result set streams
+    private static final String EXPORT_SQL =
+            "SELECT p.product_id, p.name, p.description, p.price, p.conditions, p.category, p.months_old, " +
+            "p.post_date, p.seller_id, u.name AS seller_name, p.university_id, i.s3_url, i.content_type, " +
+            "CASE WHEN i.s3_url IS NULL OR i.s3_url = '' THEN i.image_data END AS image_data " +
+            "FROM products p " +
+            "JOIN users u ON u.user_id = p.seller_id " +
+            "LEFT JOIN image i ON i.product_id = p.product_id " +
+            // same listings as ProductRepo.LIVE: sold, expired and removed products are not exported
+            "WHERE p.status IN ('AVAILABLE', 'RELISTED') " +
+            "ORDER BY p.product_id, i.image_id";
+
+    private static final int FLUSH_EVERY = 100;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public void exportProducts(OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            // the response stream belongs to the container
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            SequenceWriter writer = objectMapper.writer()
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .withRootValueSeparator("\n")
+                    .writeValues(generator);
+
+            ProductRowFolder folder = new ProductRowFolder(writer);
+            try {
+                jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(
+                            EXPORT_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    // Connector/J streams row by row only with this exact fetch size
+                    statement.setFetchSize(Integer.MIN_VALUE);
+                    return statement;
+                }, folder);
+                folder.write();
+            } catch (UncheckedIOException e) {
+                // client went away mid-export
+                throw e.getCause();
+            }
+            writer.close();
+            if (folder.written > 0) {
+                // NDJSON ends every record with a newline, the last one included
+                generator.writeRaw('\n');
+            }
+        }
+        out.flush();
+    }
+
+    // Collects consecutive rows of the same product, writes it out when the next product starts
+    private static class ProductRowFolder implements RowCallbackHandler {
+
+        private final SequenceWriter writer;
+        private ProductDto current;
+        private int written = 0;
+
+        private ProductRowFolder(SequenceWriter writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            int productId = rs.getInt("product_id");
+            if (current == null || !current.getId().equals(productId)) {
+                write();
+                current = mapProduct(rs, productId);
+            }
+
+            String s3Url = rs.getString("s3_url");
+            if (s3Url != null && !s3Url.isEmpty()) {
+                current.getImageUrls().add(s3Url);
+            } else {
+                byte[] imageData = rs.getBytes("image_data");
+                if (imageData != null) {
+                    current.getImageUrls().add("data:" + rs.getString("content_type") + ";base64," +
+                            Base64.getEncoder().encodeToString(imageData));
+                }
+            }
+        }
+
+        private void write() {
+            if (current == null) {
+                return;
+            }
+            try {
+                writer.write(current);
+                if (++written % FLUSH_EVERY == 0) {
+                    writer.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            current = null;
+        }
+
+        private static ProductDto mapProduct(ResultSet rs, int productId) throws SQLException {
+            ProductDto productDto = new ProductDto();
+            productDto.setId(productId);
+            productDto.setName(rs.getString("name"));
+            productDto.setDescription(rs.getString("description"));
+            productDto.setPrice(rs.getBigDecimal("price"));
+            productDto.setCondition(Condition.valueOf(rs.getString("conditions")));
+            productDto.setCategory(Category.valueOf(rs.getString("category")));
+            productDto.setMonthsOld((Integer) rs.getObject("months_old"));
+            Timestamp postDate = rs.getTimestamp("post_date");
+            productDto.setPostDate(postDate != null ? postDate.toInstant() : null);
+            productDto.setSellerId(rs.getInt("seller_id"));
+            productDto.setSellerName(rs.getString("seller_name"));
+            productDto.setUniversityId(rs.getInt("university_id"));
+            productDto.setImageUrls(new ArrayList<>());
+            return productDto;
+        }
+    }
+}
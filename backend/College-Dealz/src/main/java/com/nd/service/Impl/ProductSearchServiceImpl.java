@@ -0,0 +1,101 @@
+package com.nd.service.Impl;
+
+import com.nd.dto.ProductSnapshot;
+import com.nd.search.InvertedIndex;
+import com.nd.search.ProductIndex;
+import com.nd.search.SearchHits;
+import com.nd.search.SpellingIndex;
+import com.nd.search.TextAnalyzer;
+import com.nd.service.ProductSearchService;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class ProductSearchServiceImpl implements ProductSearchService, ProductIndex {
+
+    // one inverted index per university, searches never cross campuses
+    private final Map<Integer, InvertedIndex> indexes = new ConcurrentHashMap<>();
+
+    // vocabulary of listing names per university, for "did you mean"
+    private final Map<Integer, SpellingIndex> spellings = new ConcurrentHashMap<>();
+
+    private volatile boolean ready = false;
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public SearchHits search(int universityId, String query, int offset, int limit) {
+        InvertedIndex index = indexes.get(universityId);
+        List<String> terms = TextAnalyzer.analyze(query);
+        if (index == null || terms.isEmpty()) {
+            return SearchHits.empty();
+        }
+        return index.search(terms, offset, limit);
+    }
+
+    @Override
+    public List<String> suggestQueries(int universityId, String query, int max) {
+        SpellingIndex spelling = spellings.get(universityId);
+        List<String> words = TextAnalyzer.tokenize(query);
+        if (spelling == null || words.isEmpty()) {
+            return List.of();
+        }
+
+        List<List<String>> candidates = new ArrayList<>();
+        int firstMisspelled = -1;
+        for (String word : words) {
+            List<String> corrections = spelling.suggest(word, max);
+            if (!corrections.isEmpty() && firstMisspelled < 0) {
+                firstMisspelled = candidates.size();
+            }
+            candidates.add(corrections.isEmpty() ? List.of(word) : corrections);
+        }
+        if (firstMisspelled < 0) {
+            return List.of();
+        }
+
+        // best correction for every word, then alternatives for the first misspelled one
+        LinkedHashSet<String> queries = new LinkedHashSet<>();
+        for (String alternative : candidates.get(firstMisspelled)) {
+            List<String> corrected = new ArrayList<>();
+            for (int i = 0; i < candidates.size(); i++) {
+                corrected.add(i == firstMisspelled ? alternative : candidates.get(i).get(0));
+            }
+            queries.add(String.join(" ", corrected));
+        }
+        return new ArrayList<>(queries);
+    }
+
+    @Override
+    public void index(ProductSnapshot product) {
+        indexes.computeIfAbsent(product.getUniversityId(), id -> new InvertedIndex())
+                .put(product.getId(), TextAnalyzer.termFrequencies(product.getName(), product.getDescription()));
+        spellings.computeIfAbsent(product.getUniversityId(), id -> new SpellingIndex())
+                .put(product.getId(), TextAnalyzer.tokenize(product.getName()));
+    }
+
+    @Override
+    public void remove(int universityId, int productId) {
+        InvertedIndex index = indexes.get(universityId);
+        if (index != null) {
+            index.remove(productId);
+        }
+        SpellingIndex spelling = spellings.get(universityId);
+        if (spelling != null) {
+            spelling.remove(productId);
+        }
+    }
+
+    @Override
+    public void loaded() {
+        ready = true;
+    }
+}
@@ -1,36 +1,68 @@
 package com.nd.service.Impl;
 
+import com.nd.dto.CursorPage;
+import com.nd.dto.FacetFilterRequest;
+import com.nd.dto.FacetSearchResultDto;
 import com.nd.dto.InterestedBuyerDto;
+import com.nd.dto.ProductCardDto;
+import com.nd.dto.ProductSnapshot;
+import com.nd.dto.ProductSortFilterRequest;
+import com.nd.dto.SearchSuggestionDto;
 import com.nd.dto.ShareProductDto;
 import com.nd.dto.SoldOutsideResponse;
 import com.nd.entities.*;
+import com.nd.dto.ImageRenditionsDto;
 import com.nd.dto.ProductDto;
-import com.nd.enums.Category;
 import com.nd.enums.NotificationType;
+import com.nd.enums.ProductSortField;
 import com.nd.enums.ProductStatus;
 import com.nd.enums.ReferenceType;
+import com.nd.events.ProductChangedEvent;
+import com.nd.exceptions.ApiException;
 import com.nd.exceptions.ProductException;
 import com.nd.exceptions.ResourceNotFoundException;
 import com.nd.repositories.*;
+import com.nd.service.FacetService;
+import com.nd.service.FeedCacheService;
 import com.nd.service.JwtService;
+import com.nd.service.ListingExpiryService;
 import com.nd.service.NotificationService;
+import com.nd.service.ProductSearchService;
 import com.nd.service.ProductService;
+import com.nd.service.PurgeService;
+import com.nd.search.FacetHits;
+import com.nd.search.SearchHits;
+import com.nd.service.PersonalizationService;
+import com.nd.service.SimilarProductService;
+import com.nd.service.ViewCountService;
 import com.nd.service.S3ImageService;
+import com.nd.service.TrendingService;
+import com.nd.utils.FeedCursor;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.time.temporal.ChronoUnit;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import java.io.IOException;
@@ -40,6 +72,12 @@ import java.util.Base64;
 @Service
 public class ProductServiceImpl implements ProductService {
 
+    private static final String INSERT_IMAGE_SQL =
+            "INSERT INTO image (product_id, file_name, content_type, s3_url, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    // listings the "for you" sort re-ranks per request
+    private static final int PERSONALIZED_CANDIDATES = 300;
+
     @Autowired
     private ProductRepo productRepo;
 
@@ -52,10 +90,6 @@ public class ProductServiceImpl implements ProductService {
     @Autowired
     private JwtService jwtService;
 
-
-    @Autowired
-    private ArchivedProductsRepo archivedProductsRepo;
-
     @Autowired
     private ImageRepo imageRepo;
 
@@ -67,92 +101,157 @@ public class ProductServiceImpl implements ProductService {
     @Autowired
     private NotificationService notificationService;
 
-    @Override
-    public ProductDto createProduct(ProductDto productDto, String authHeader) throws ResourceNotFoundException {
-
-        int seller_id= jwtService.getUserIdFromToken(authHeader);
-        productDto.setSellerId(seller_id);
-
-
-        productDto.setUniversityId(jwtService.getUniversityIdFromToken(authHeader));
-
-
-        // Map ProductDto to Product entity
-        Product product = mapToEntity(productDto);
-
-        product.setPostDate(Instant.now());
-        product.setCreatedAt(Instant.now());
-        product.setUpdatedAt(Instant.now());
+    @Autowired
+    private ProductSearchService productSearchService;
 
-        // Save the product
-        Product savedProduct = productRepo.save(product);
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
-        // Map back to DTO and return
-        return mapToDtowithoutImage(savedProduct);
+    @Autowired
+    private FeedCacheService feedCacheService;
 
-    }
+    @Autowired
+    private FacetService facetService;
 
-   // @Transactional
-    public ProductDto createProductWithImages(ProductDto productDto, String authHeader) throws IOException {
+    @Autowired
+    private TrendingService trendingService;
 
-        // Step 1: Populate seller ID and university ID from the token
-        int sellerId = jwtService.getUserIdFromToken(authHeader);
-        int universityId = jwtService.getUniversityIdFromToken(authHeader);
+    @Autowired
+    private PersonalizationService personalizationService;
 
-        productDto.setSellerId(sellerId);
-        productDto.setUniversityId(universityId);
-        productDto.setPostDate(Instant.now());
+    @Autowired
+    private SimilarProductService similarProductService;
 
-        // Step 2: Use the existing createProduct method to save the product
-        ProductDto savedProductDto = createProduct(productDto, authHeader);
+    @Autowired
+    private ViewCountService viewCountService;
 
-        // Step 3: Retrieve the saved product entity from the database
-        Product savedProduct = productRepo.findById(savedProductDto.getId())
-                .orElseThrow(() -> new IllegalArgumentException("Product not found with ID: " + savedProductDto.getId()));
+    @Autowired
+    private ProductRelistHistoryRepo relistHistoryRepo;
 
-        // Step 4: Save associated images
-        List<Image> images = new ArrayList<>();
+    @Autowired
+    private PurgeService purgeService;
 
-// Inside createProductWithImages()
-        if (productDto.getImages() != null) {
-            List<String> s3Urls = s3Service.uploadImages(productDto.getImages());
+    @Autowired
+    private ListingExpiryService listingExpiryService;
 
-            for (int i = 0; i < productDto.getImages().size(); i++) {
-                MultipartFile file = productDto.getImages().get(i);
-                String s3Url = s3Urls.get(i);
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
-                Image image = new Image();
-                image.setProduct(savedProduct);
-                image.setFileName(file.getOriginalFilename());
-                image.setContentType(file.getContentType());
-                image.setS3Url(s3Url);
-                image.setCreatedAt(Instant.now());
-                image.setUpdatedAt(Instant.now());
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
-                images.add(image);
-            }
+    @Override
+    @Transactional
+    public ProductDto createProduct(ProductDto productDto, String authHeader) throws ResourceNotFoundException {
+        int[] owner = jwtService.getUserAndUniversityIdFromToken(authHeader);
+        Product savedProduct = insertListing(productDto, owner[0], owner[1], List.of());
+        return mapToDtowithoutImage(savedProduct);
+    }
 
-            imageRepo.saveAll(images);
-        } else {
+    /**
+     * Uploads the images first, then writes the product and all its image rows in one transaction:
+     * one lookup for the seller and university ids, one product insert and one JDBC batch for the images.
+     * If anything in the transaction fails, the references just taken on the S3 objects are released again.
+     */
+    @Override
+    public ProductDto createProductWithImages(ProductDto productDto, String authHeader) throws IOException {
+        if (productDto.getImages() == null) {
             throw new ResourceNotFoundException("Images are not submitted with product");
         }
+        int[] owner = jwtService.getUserAndUniversityIdFromToken(authHeader);
+
+        // no connection is held while the uploads run
+        List<String> s3Urls = s3Service.uploadImages(productDto.getImages());
+
+        Product savedProduct;
+        try {
+            savedProduct = transactionTemplate.execute(status -> insertListing(productDto, owner[0], owner[1], s3Urls));
+        } catch (RuntimeException ex) {
+            try {
+                s3Service.releaseImages(s3Urls);
+            } catch (RuntimeException cleanupFailure) {
+                ex.addSuppressed(cleanupFailure);
+            }
+            throw ex;
+        }
 
-        savedProduct.setImages(images);
+        ProductDto savedProductDto = mapToDtowithoutImage(savedProduct);
+        savedProductDto.setImageUrls(s3Urls);
+        savedProductDto.setExpiresAt(savedProduct.getExpiresAt());
+        return savedProductDto;
+    }
 
-        // Step 5: Save the updated product to ensure images are linked
-     Product savedProductwithImage =  productRepo.save(savedProduct);
+    // Seller and university are reference proxies: their ids are known, so neither row is read
+    private Product insertListing(ProductDto productDto, int sellerId, int universityId, List<String> s3Urls) {
+        Instant now = Instant.now();
+        Product product = new Product();
+        product.setName(productDto.getName());
+        product.setDescription(productDto.getDescription());
+        product.setPrice(productDto.getPrice());
+        product.setCondition(productDto.getCondition());
+        product.setCategory(productDto.getCategory());
+        product.setMonthsOld(productDto.getMonthsOld());
+        product.setSeller(userRepo.getReferenceById(sellerId));
+        product.setUniversity(universityRepo.getReferenceById(universityId));
+        product.setPostDate(now);
+        product.setCreatedAt(now);
+        product.setUpdatedAt(now);
+        product.setExpiresAt(listingExpiryService.expiresAt(now));
+
+        Product savedProduct = productRepo.save(product);
 
-     ProductDto savedProductDtoWithImage = mapToDto(savedProductwithImage);
+        if (!s3Urls.isEmpty()) {
+            List<MultipartFile> files = productDto.getImages();
+            Timestamp createdAt = Timestamp.from(now);
+            jdbcTemplate.batchUpdate(INSERT_IMAGE_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement statement, int i) throws SQLException {
+                    statement.setInt(1, savedProduct.getId());
+                    statement.setString(2, files.get(i).getOriginalFilename());
+                    statement.setString(3, files.get(i).getContentType());
+                    statement.setString(4, s3Urls.get(i));
+                    statement.setTimestamp(5, createdAt);
+                    statement.setTimestamp(6, createdAt);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return s3Urls.size();
+                }
+            });
+        }
 
-        return savedProductDtoWithImage;
+        // listeners run after commit, when the images are already there for the cover
+        publishChange(ProductChangedEvent.Type.CREATED, savedProduct);
+        return savedProduct;
     }
 
+    // New images are uploaded before the transaction opens, as in createProductWithImages, and released if it fails
     @Override
-    @Transactional
     public ProductDto updateProduct(Integer productId, ProductDto productDto) throws IOException {
+        List<MultipartFile> newFiles = productDto.getImages();
+        List<String> s3Urls = s3Service.uploadImages(newFiles);
+
+        try {
+            return transactionTemplate.execute(status -> applyUpdate(productId, productDto, newFiles, s3Urls));
+        } catch (RuntimeException ex) {
+            try {
+                s3Service.releaseImages(s3Urls);
+            } catch (RuntimeException cleanupFailure) {
+                ex.addSuppressed(cleanupFailure);
+            }
+            throw ex;
+        }
+    }
+
+    private ProductDto applyUpdate(Integer productId, ProductDto productDto, List<MultipartFile> newFiles, List<String> s3Urls) {
         // 1. Fetch the existing product
         Product existingProduct = productRepo.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Product with ID " + productId + " not found."));
+        // a closed listing only waits for archival; an UPDATED event would put it back into every index
+        if (!ProductStatus.LIVE.contains(existingProduct.getStatus())) {
+            throw new ApiException("Listing " + productId + " is " + existingProduct.getStatus() + " and can no longer be edited");
+        }
 
         // 2. Update basic product details ONLY if new values are provided
         if (productDto.getName() != null) {
@@ -189,12 +288,13 @@ public class ProductServiceImpl implements ProductService {
                 System.out.println("Removing images: " + imagesToRemove);
 
 
-                List<String> s3FileNamesToDelete = imagesToRemove.stream()
-                        .filter(img -> img.getS3Url() != null)
-                        .map(Image::getFileName)
+                // other listings may share the same stored bytes; S3 objects go when their last image row does,
+                // and only once this transaction has committed
+                List<String> s3UrlsToRelease = imagesToRemove.stream()
+                        .map(Image::getS3Url)
                         .collect(Collectors.toList());
 
-                s3Service.deleteImages(s3FileNamesToDelete);
+                s3Service.releaseImages(s3UrlsToRelease);
 
                 // Remove associations from the product's collection
                 existingProduct.getImages().removeAll(imagesToRemove);
@@ -205,9 +305,7 @@ public class ProductServiceImpl implements ProductService {
         }
 
         // 4. Add new images (if provided)
-        List<MultipartFile> newFiles = productDto.getImages();
-        if (newFiles != null && !newFiles.isEmpty()) {
-            List<String> s3Urls = s3Service.uploadImages(newFiles);  // Upload to S3 and get URLs
+        if (!s3Urls.isEmpty()) {
             List<Image> newImages = new ArrayList<>();
 
             for (int i = 0; i < newFiles.size(); i++) {
@@ -230,10 +328,21 @@ public class ProductServiceImpl implements ProductService {
         }
         // 5. Save the updated product
         Product savedProduct = productRepo.save(existingProduct);
+        publishChange(ProductChangedEvent.Type.UPDATED, savedProduct);
         return mapToDto(savedProduct);
     }
 
 
+    // Two indexed lookups instead of loading the product, its images and seller; null when there is nothing to tag
+    @Override
+    public String getProductETag(Integer productId, String token) {
+        Integer userId = jwtService.getUserIdFromToken(token);
+        return productRepo.findUpdatedAtById(productId)
+                .map(updatedAt -> "p-" + productId + "-" + updatedAt.toEpochMilli() + "-"
+                        + (wishlistRepository.existsByUserIdAndProductId(userId, productId) ? "w" : "n"))
+                .orElse(null);
+    }
+
     @Override
     public ProductDto getProductById(Integer productId , String token) {
 
@@ -241,8 +350,12 @@ public class ProductServiceImpl implements ProductService {
 
         boolean isWishlisted=wishlistRepository.existsByUserIdAndProductId(userId,productId);
 
+        // closed listings only wait in products for archival: not shown and not counted as viewed
         Product product = productRepo.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product with ID " + productId + " not found."));
+                .filter(found -> ProductStatus.LIVE.contains(found.getStatus()))
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
+
+        recordView(productId, product.getSeller().getId(), userId);
 
         ProductDto finalDto = mapToDto(product);
         finalDto.setWishlisted(isWishlisted);
@@ -250,10 +363,33 @@ public class ProductServiceImpl implements ProductService {
         return finalDto;
     }
 
+    // A 304 on the product page is still someone looking at the listing
+    @Override
+    public void recordRevalidatedView(Integer productId, String token) {
+        Integer userId = jwtService.getUserIdFromToken(token);
+        productRepo.findSellerIdById(productId).ifPresent(sellerId -> recordView(productId, sellerId, userId));
+    }
+
+    // Kept out of the product and feed responses, which are cached and tagged and would freeze the count
+    @Override
+    public long getViewCount(Integer productId) {
+        Long storedCount = productRepo.findViewCountById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
+        return viewCountService.getViewCount(productId, storedCount);
+    }
+
+    private void recordView(int productId, int sellerId, int viewerId) {
+        // sellers checking their own listing neither count as a view nor make it trend
+        if (sellerId != viewerId) {
+            trendingService.recordView(productId);
+            viewCountService.recordView(productId);
+        }
+    }
+
     @Override
     public List<ProductDto> getAllProducts(String authHeader) {
         int user = jwtService.getUserIdFromToken(authHeader);
-        if (user!=0) {return productRepo.findAll().stream()
+        if (user!=0) {return productRepo.findAll(ProductSpecifications.isLive()).stream()
                 .map(this::mapToDto)
                 .collect(Collectors.toList());}
         return null;
@@ -271,116 +407,207 @@ public class ProductServiceImpl implements ProductService {
     public List<ProductDto> getProductsBySellerId(String authHeader) {
 
         int sellerId= jwtService.getUserIdFromToken(authHeader);
-        return productRepo.findBySellerId(sellerId).stream()
-                .map(this::mapToDto)
+        // the seller's own listings are neither cached nor tagged, so the live view count can go on each card
+        return productRepo.findCards(ProductSpecifications.soldBy(sellerId).and(ProductSpecifications.isLive()), Pageable.unpaged()).stream()
+                .map(card -> {
+                    ProductDto productDto = mapCardToDto(card);
+                    productDto.setViewCount(viewCountService.getViewCount(card.getId(), card.getViewCount()));
+                    return productDto;
+                })
                 .collect(Collectors.toList());
     }
 
 
+    // Bumps the existing listing back to the top of the feed; nothing is copied or deleted
     @Override
+    @Transactional
     public boolean relistProduct(Integer productId) throws ProductException {
-        // Find the old product; throw an exception if not found
-        Product oldProduct = productRepo.findById(productId)
+        ProductSnapshot before = productRepo.findSnapshotById(productId)
                 .orElseThrow(() -> new ProductException("Product not found with id: " + productId));
 
-        // Create a new Product instance and copy over product-related fields
-        Product newProduct = new Product();
-        newProduct.setName(oldProduct.getName());
-        newProduct.setDescription(oldProduct.getDescription());
-        newProduct.setPrice(oldProduct.getPrice());
-        newProduct.setCondition(oldProduct.getCondition());
-        newProduct.setMonthsOld(oldProduct.getMonthsOld());
-        newProduct.setCategory(oldProduct.getCategory());
-        // Do NOT copy location
-        newProduct.setSeller(oldProduct.getSeller());
-        newProduct.setUniversity(oldProduct.getUniversity());
-
-        // Copy all images: create new Image objects associated with the new product
-        List<Image> newImages = new ArrayList<>();
-        if (oldProduct.getImages() != null) {
-            for (Image oldImage : oldProduct.getImages()) {
-                Image newImage = new Image();
-                newImage.setS3Url(oldImage.getS3Url()); // Assuming image URL is stored in S3
-                newImage.setFileName(oldImage.getFileName());
-                newImage.setContentType(oldImage.getContentType());
-                newImage.setImageData(oldImage.getImageData());
-                newImage.setProduct(newProduct);
-                newImages.add(newImage);
-            }
+        Instant now = Instant.now();
+        if (productRepo.relist(productId, now, listingExpiryService.expiresAt(now)) == 0) {
+            return false;
         }
-        newProduct.setImages(newImages);
 
-        // Reset associations that should not be copied
-        newProduct.setChats(new ArrayList<>());
-        newProduct.setWishlists(new ArrayList<>());
+        ProductRelistHistory history = new ProductRelistHistory();
+        history.setProductId(productId);
+        history.setSellerId(before.getSellerId());
+        history.setPreviousPostDate(before.getPostDate());
+        history.setRelistedAt(now);
+        history.setRelistNumber(productRepo.findRelistCountById(productId).orElse(1));
+        relistHistoryRepo.save(history);
+
+        // listeners run after commit: feed cache, search and the other in-memory indexes pick up the new post date
+        productRepo.findSnapshotById(productId)
+                .ifPresent(after -> eventPublisher.publishEvent(new ProductChangedEvent(ProductChangedEvent.Type.RELISTED, after)));
+        return true;
+    }
 
-        // Set new timestamps and status for the new product listing
-        Instant now = Instant.now();
-        newProduct.setPostDate(now);
-        newProduct.setCreatedAt(now);
-        newProduct.setUpdatedAt(now);
-        newProduct.setStatus(ProductStatus.RELISTED);
 
-        // Save the new product
-        Product savedProduct = productRepo.save(newProduct);
 
+    @Override
+    public Page<ProductDto> getProductsByUniversityId(int universityId, ProductSortFilterRequest request) {
+        return feedCacheService.getOrLoad(universityId, request, () -> loadFeedPage(universityId, request));
+    }
 
-        ProductDto productDto= mapToDto(savedProduct);
+    @Override
+    public CursorPage<ProductDto> getProductsByUniversityIdAfterCursor(int universityId, ProductSortFilterRequest request) {
+        return feedCacheService.getOrLoad(universityId, request, () -> loadFeedPageAfterCursor(universityId, request));
+    }
 
-        deleteProduct(productId);
+    private Page<ProductDto> loadFeedPage(int universityId, ProductSortFilterRequest request) {
+        int pageNumber = (request.getPage() != null && request.getPage() >= 0) ? request.getPage() : 0;
+        int pageSize = (request.getSize() != null && request.getSize() > 0) ? request.getSize() : 10;
+        ProductSortField sortField = ProductSortField.from(request.getSortField());
+        Sort.Direction direction = (request.getSortDir() != null && request.getSortDir().equalsIgnoreCase("desc")) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Pageable sortedPageable = PageRequest.of(pageNumber, pageSize,
+                Sort.by(direction, sortField.getProperty()).and(Sort.by(direction, "id")));
 
-        return true;
+        // All filters are combined into one query instead of picking a single finder
+        Page<ProductCardDto> productPage = productRepo.findCards(ProductSpecifications.forFeed(universityId, request), sortedPageable);
+
+        return productPage.map(this::mapCardToDto);
     }
 
+    private CursorPage<ProductDto> loadFeedPageAfterCursor(int universityId, ProductSortFilterRequest request) {
+        int pageSize = (request.getSize() != null && request.getSize() > 0) ? request.getSize() : 10;
+        ProductSortField sortField = ProductSortField.from(request.getSortField());
+        Sort.Direction direction = (request.getSortDir() != null && request.getSortDir().equalsIgnoreCase("desc")) ? Sort.Direction.DESC : Sort.Direction.ASC;
 
+        Specification<Product> spec = ProductSpecifications.forFeed(universityId, request);
 
-    @Override
-    public Page<ProductDto> getProductsByUniversityId(
-            int universityId,
-            String sortField,
-            String sortDir,
-            Integer page,
-            Integer size,
-            String category,
-            BigDecimal minPrice,
-            BigDecimal maxPrice) {
-         int pageNumber = (page != null && page >= 0) ? page : 0;
-        int pageSize = (size != null && size > 0) ? size : 10;
-        String sortBy = (sortField != null && !sortField.isEmpty()) ? sortField : "price";
-        Sort.Direction direction = (sortDir != null && sortDir.equalsIgnoreCase("desc")) ? Sort.Direction.DESC : Sort.Direction.ASC;
-        Pageable sortedPageable = PageRequest.of(pageNumber, pageSize, Sort.by(direction, sortBy));
-
-
-        // If a filter is provided, add your filtering logic here. This example assumes filtering by a product name substring.
-        Page<Product> productPage;
-
-        if (category != null && !category.isEmpty()) {
-      //      productPage = productRepo.findByUniversityIdAndNameContainingIgnoreCase(universityId, filter, sortedPageable);
-            Category category_enum= Category.valueOf(category.toUpperCase());
-            productPage= productRepo.findByUniversityIdAndCategory(universityId,category_enum , sortedPageable);
-        } else if(maxPrice != null &&  !maxPrice.equals(BigDecimal.ZERO) && minPrice != null)
-
-        {
-            productPage = productRepo.findByUniversityIdAndPriceLessThanEqualAndPriceGreaterThanEqual(universityId,maxPrice,minPrice,sortedPageable);
-        }
-        else
-        {
-            productPage = productRepo.findByUniversityId(universityId, sortedPageable);
+        FeedCursor cursor = FeedCursor.decode(request.getCursor());
+        if (cursor != null) {
+            cursor.verify(sortField, direction);
+            spec = spec.and(ProductSpecifications.after(sortField, direction, cursor.getValue(), cursor.getId()));
         }
 
-        // Map your Product entities to ProductDto
-        return productPage.map(this::mapToDto);
+        // product_id breaks ties so every row has a unique position; one extra row tells us if there is a next page
+        Sort sort = Sort.by(direction, sortField.getProperty()).and(Sort.by(direction, "id"));
+        List<ProductCardDto> rows = productRepo.findCards(spec, sort, pageSize + 1);
+
+        boolean hasNext = rows.size() > pageSize;
+        List<ProductCardDto> pageRows = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasNext
+                ? FeedCursor.after(pageRows.get(pageRows.size() - 1), sortField, direction).encode()
+                : null;
+
+        List<ProductDto> content = pageRows.stream()
+                .map(this::mapCardToDto)
+                .collect(Collectors.toList());
+        return new CursorPage<>(content, nextCursor, hasNext, pageSize);
     }
 
 
 
     @Override
     public Page<ProductDto> searchProductsByUniversity(int universityId, String searchTerm, Pageable pageable) {
-        Page<Product> productPage = productRepo
-                .findByUniversityIdAndNameContainingOrDescriptionContaining(
-                        universityId, searchTerm, searchTerm, pageable);
+        if (!productSearchService.isReady()) {
+            // index still loading after a restart: fall back to the SQL match
+            Specification<Product> spec = ProductSpecifications.inUniversity(universityId)
+                    .and(ProductSpecifications.isLive())
+                    .and(ProductSpecifications.matchesTerm(searchTerm));
+            return productRepo.findCards(spec, pageable).map(this::mapCardToDto);
+        }
+
+        SearchHits hits = productSearchService.search(universityId, searchTerm, (int) pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(getCardsInOrder(hits.getProductIds()), pageable, hits.getTotal());
+    }
+
+    // Re-ranks only the newest PERSONALIZED_CANDIDATES matching listings, which the feed cache shares per campus
+    @Override
+    public Page<ProductDto> getPersonalizedProducts(int universityId, int userId, ProductSortFilterRequest request) {
+        int pageNumber = (request.getPage() != null && request.getPage() >= 0) ? request.getPage() : 0;
+        int pageSize = (request.getSize() != null && request.getSize() > 0) ? request.getSize() : 10;
+        Pageable pageable = PageRequest.of(pageNumber, pageSize);
+
+        ProductSortFilterRequest candidateRequest = new ProductSortFilterRequest();
+        candidateRequest.setCategory(request.getCategory());
+        candidateRequest.setMinPrice(request.getMinPrice());
+        candidateRequest.setMaxPrice(request.getMaxPrice());
+        candidateRequest.setCondition(request.getCondition());
+        candidateRequest.setMonthsOld(request.getMonthsOld());
+        candidateRequest.setStatus(request.getStatus());
+        candidateRequest.setSearchTerm(request.getSearchTerm());
+        candidateRequest.setSortField(ProductSortField.POST_DATE.getProperty());
+        candidateRequest.setSortDir("desc");
+        candidateRequest.setSize(PERSONALIZED_CANDIDATES);
+
+        List<ProductCardDto> candidates = feedCacheService.getOrLoad(universityId, "candidates", candidateRequest,
+                () -> productRepo.findCards(ProductSpecifications.forFeed(universityId, candidateRequest),
+                        Sort.by(Sort.Direction.DESC, "postDate").and(Sort.by(Sort.Direction.DESC, "id")),
+                        PERSONALIZED_CANDIDATES));
+
+        List<ProductCardDto> ranked = personalizationService.rank(userId, candidates);
+        int from = (int) Math.min(pageable.getOffset(), ranked.size());
+        int to = Math.min(from + pageSize, ranked.size());
+        List<ProductDto> content = ranked.subList(from, to).stream()
+                .map(this::mapCardToDto)
+                .collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, ranked.size());
+    }
+
+    // Ranked in memory by TrendingService; only the page of cards is read from the database
+    @Override
+    public Page<ProductDto> getTrendingProducts(int universityId, ProductSortFilterRequest request) {
+        int pageNumber = (request.getPage() != null && request.getPage() >= 0) ? request.getPage() : 0;
+        int pageSize = (request.getSize() != null && request.getSize() > 0) ? request.getSize() : 10;
+        Pageable pageable = PageRequest.of(pageNumber, pageSize);
+
+        List<Integer> productIds = trendingService.getTrending(universityId, (int) pageable.getOffset(), pageSize);
+        return new PageImpl<>(getCardsInOrder(productIds), pageable, trendingService.countTrending(universityId));
+    }
+
+    @Override
+    public FacetSearchResultDto getFacetedProducts(int universityId, FacetFilterRequest request) {
+        if (!facetService.isReady()) {
+            throw new ApiException("Filters are still loading, please try again in a moment");
+        }
+        int pageNumber = (request.getPage() != null && request.getPage() >= 0) ? request.getPage() : 0;
+        int pageSize = (request.getSize() != null && request.getSize() > 0) ? request.getSize() : 10;
+        Pageable pageable = PageRequest.of(pageNumber, pageSize);
+
+        // matching ids and all facet counts come from the bitmaps; only the page itself hits the database
+        FacetHits hits = facetService.search(universityId, request, (int) pageable.getOffset(), pageSize);
+        List<Integer> productIds = Arrays.stream(hits.getProductIds()).boxed().collect(Collectors.toList());
+        Page<ProductDto> products = new PageImpl<>(getCardsInOrder(productIds), pageable, hits.getTotal());
+        return new FacetSearchResultDto(products, hits.getCounts());
+    }
+
+    // Neighbors are precomputed by SimilarProductService; a listing no longer live has none
+    @Override
+    public List<ProductDto> getSimilarProducts(int productId, int limit) {
+        if (!productRepo.existsById(productId)) {
+            throw new ResourceNotFoundException("Product", "id", productId);
+        }
+        return getCardsInOrder(similarProductService.getSimilar(productId, limit));
+    }
 
-        return productPage.map(this::mapToDto);
+    @Override
+    public SearchSuggestionDto searchWithSpellingCorrection(int universityId, String searchTerm, Pageable pageable) {
+        List<String> suggestions = productSearchService.suggestQueries(universityId, searchTerm, 3);
+
+        // first correction that actually finds something is the one we show results for
+        for (String suggestion : suggestions) {
+            SearchHits hits = productSearchService.search(universityId, suggestion, (int) pageable.getOffset(), pageable.getPageSize());
+            if (hits.getTotal() > 0) {
+                Page<ProductDto> products = new PageImpl<>(getCardsInOrder(hits.getProductIds()), pageable, hits.getTotal());
+                return new SearchSuggestionDto(searchTerm, suggestion, suggestions, products);
+            }
+        }
+        return null;
+    }
+
+    // Loads cards for ids ranked elsewhere (search, trending...) and keeps that ranking
+    private List<ProductDto> getCardsInOrder(List<Integer> productIds) {
+        Map<Integer, ProductCardDto> cards = productRepo.findCardsByIds(productIds).stream()
+                .collect(Collectors.toMap(ProductCardDto::getId, Function.identity()));
+        return productIds.stream()
+                .map(cards::get)
+                .filter(Objects::nonNull)
+                .map(this::mapCardToDto)
+                .collect(Collectors.toList());
     }
 
    // @Override
@@ -395,14 +622,10 @@ public class ProductServiceImpl implements ProductService {
                 .map(this::mapToDto)
                 .collect(Collectors.toList());    }
 
+    // The listing disappears now; its chats, wishlists and images are deleted by a background purge job
     @Override
     public void deleteProduct(Integer productId) {
-        if (productRepo.existsById(productId)) {
-
-            productRepo.deleteById(productId);
-        } else {
-            throw new RuntimeException("Product with ID " + productId + " not found.");
-        }
+        purgeService.purgeProduct(productId);
     }
 
     @Override
@@ -419,25 +642,6 @@ public class ProductServiceImpl implements ProductService {
                 .collect(Collectors.toList());
     }
 
-    private Product mapToEntity(ProductDto productDto) {
-        Product product = new Product();
-     //   product.setId(productDto.getId());
-        product.setName(productDto.getName());
-        product.setDescription(productDto.getDescription());
-        product.setPrice(productDto.getPrice());
-        product.setCondition(productDto.getCondition());
-        product.setCategory(productDto.getCategory());
-        product.setMonthsOld(productDto.getMonthsOld());
-        User seller = userRepo.findById(productDto.getSellerId())
-                .orElseThrow(() -> new RuntimeException("Seller with ID " + productDto.getSellerId() + " not found."));
-        product.setSeller(seller);
-        University university = universityRepo.findById(productDto.getUniversityId())
-                .orElseThrow(() -> new RuntimeException("University with ID " + productDto.getUniversityId() + " not found."));
-        product.setUniversity(university);
-        return product;
-    }
-
-
     @Override
     public List<Chat> getChatByProductId(int ProductId){
         Product product = productRepo.getProductById(ProductId);
@@ -458,6 +662,7 @@ public class ProductServiceImpl implements ProductService {
         productDto.setUniversityId(product.getUniversity().getId());
         productDto.setSellerName(product.getSeller().getName());
         productDto.setPostDate(product.getPostDate());
+        productDto.setExpiresAt(product.getExpiresAt());
 
         // Map associated images to URLs or base64-encoded data
         List<String> imageUrls = product.getImages().stream()
@@ -472,10 +677,48 @@ public class ProductServiceImpl implements ProductService {
                 })
                 .toList();
         productDto.setImageUrls(imageUrls);
+        productDto.setImageRenditions(product.getImages().stream()
+                .filter(image -> image.getS3Url() != null && !image.getS3Url().isEmpty())
+                .map(image -> new ImageRenditionsDto(image.getS3Url(),
+                        orOriginal(image.getThumbnailUrl(), image.getS3Url()),
+                        orOriginal(image.getCardUrl(), image.getS3Url()),
+                        orOriginal(image.getFullUrl(), image.getS3Url()),
+                        image.getBlurHash()))
+                .toList());
+        if (!productDto.getImageRenditions().isEmpty()) {
+            productDto.setCoverBlurHash(productDto.getImageRenditions().get(0).getBlurHash());
+        }
 
         return productDto;
     }
 
+    private static String orOriginal(String renditionUrl, String originalUrl) {
+        return renditionUrl != null ? renditionUrl : originalUrl;
+    }
+
+    // List views get the card columns only: no description and just the cover image
+    @Override
+    public ProductDto mapCardToDto(ProductCardDto card) {
+        ProductDto productDto = new ProductDto();
+        productDto.setId(card.getId());
+        productDto.setName(card.getName());
+        productDto.setPrice(card.getPrice());
+        productDto.setCondition(card.getCondition());
+        productDto.setCategory(card.getCategory());
+        productDto.setMonthsOld(card.getMonthsOld());
+        productDto.setSellerId(card.getSellerId());
+        productDto.setUniversityId(card.getUniversityId());
+        productDto.setSellerName(card.getSellerName());
+        productDto.setPostDate(card.getPostDate());
+        productDto.setCoverImageUrl(card.getCoverImageUrl());
+        productDto.setCoverThumbnailUrl(orOriginal(card.getCoverThumbnailUrl(), card.getCoverImageUrl()));
+        productDto.setCoverCardUrl(orOriginal(card.getCoverCardUrl(), card.getCoverImageUrl()));
+        productDto.setCoverBlurHash(card.getCoverBlurHash());
+        productDto.setImageCount(card.getImageCount());
+        productDto.setImageUrls(card.getCoverImageUrl() != null ? List.of(card.getCoverImageUrl()) : List.of());
+        return productDto;
+    }
+
     private ProductDto mapToDtowithoutImage(Product product) {
         ProductDto productDto = new ProductDto();
         productDto.setId(product.getId());
@@ -493,8 +736,10 @@ public class ProductServiceImpl implements ProductService {
 
     public ShareProductDto getsharedProduct(int productId ){
 
+        // sold, removed, expired and deleted listings are not shared: 404 rather than a cached preview
         Product productt = productRepo.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product with ID " + productId + " not found."));
+                .filter(product -> ProductStatus.LIVE.contains(product.getStatus()))
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
 
         ProductDto product = mapToDto(productt);
 
@@ -512,158 +757,63 @@ public class ProductServiceImpl implements ProductService {
 
 
     @Override
+    @Transactional
     public boolean removeProduct(Integer productId, String removalReason, boolean byUser) throws ProductException {
-        // Fetch the product; throw an exception if not found.
-        Product product = productRepo.findById(productId)
-                .orElseThrow(() -> new ProductException("Product not found with id: " + productId));
+        ProductSnapshot product = closeListing(productId,
+                byUser ? ProductStatus.REMOVED_BY_USER : ProductStatus.REMOVED_BY_ADMIN,
+                Instant.now(), null, removalReason, null);
 
-        // Create an ArchivedProducts instance and copy required fields.
-        ArchivedProducts archived = new ArchivedProducts();
-        archived.setTitle(product.getName());
-        archived.setDescription(product.getDescription());
-        archived.setPrice(product.getPrice());
-        // Assuming ArchivedProducts.category is a String; if it's an enum, adjust accordingly.
-        archived.setCategory(product.getCategory());
-        archived.setSellerId(product.getSeller().getId());
-        // Listing date comes from product's createdAt field (converted to LocalDateTime)
-        LocalDateTime listingDate = LocalDateTime.ofInstant(product.getCreatedAt(), ZoneId.systemDefault());
-        archived.setListingDate(listingDate);
-        archived.setUniversityId(product.getUniversity().getId());
-
-        // Set removal-specific fields.
-        // Ensure ProductStatus.REMOVED_BY_USER exists in your enum, or use an equivalent value.
-
-        if(byUser)
-        archived.setStatus(ProductStatus.REMOVED_BY_USER);
-        else {
-            archived.setStatus(ProductStatus.REMOVED_BY_ADMIN);
-
-            notificationService.createNotificationForUser(product.getSeller().getId(),product.getName()+" was deleted by admin",
-                    removalReason, NotificationType.SYSTEM_NOTIFICATION , ReferenceType.NO_REFERENCE,0);
+        if (!byUser) {
+            notificationService.createNotificationForUser(product.getSellerId(), product.getName() + " was deleted by admin",
+                    removalReason, NotificationType.SYSTEM_NOTIFICATION, ReferenceType.NO_REFERENCE, 0);
         }
-
-        archived.setReasonForRemoval(removalReason);
-        archived.setStatusChangeDate(LocalDateTime.now());
-        // Calculate dealCompletionTime in days between product createdAt and now.
-        long daysBetween = ChronoUnit.DAYS.between(listingDate, LocalDateTime.now());
-        archived.setDealCompletionTime(daysBetween);
-
-        // Other fields are left as null or their default values (e.g. finalSoldPrice, buyerId, etc.)
-
-        // Save the archived product.
-        archivedProductsRepo.save(archived);
-
-        // Optionally remove the original product (or mark it inactive).
-        productRepo.delete(product);
-
         return true;
     }
 
 
     @Override
+    @Transactional
     public boolean soldOutsidePlatfrom(Integer productId, SoldOutsideResponse soldOutsideResponse) throws ProductException {
-        // Fetch the product by ID; throw exception if not found.
-        Product product = productRepo.findById(productId)
-                .orElseThrow(() -> new ProductException("Product not found with id: " + productId));
-
-        // Create a new ArchivedProducts instance and copy product-related fields.
-        ArchivedProducts archived = new ArchivedProducts();
-        archived.setTitle(product.getName());
-        archived.setDescription(product.getDescription());
-        // Assuming category is an enum; convert to string if needed.
-        archived.setCategory(product.getCategory());
-        System.out.println("soldOutsideProduct : : "+ product.getPrice());
-
-        archived.setPrice(product.getPrice());
-        archived.setSellerId(product.getSeller().getId());
-        archived.setUniversityId(product.getUniversity().getId());
-
-        // Use product's createdAt as the listing date.
-        LocalDateTime listingDate = LocalDateTime.ofInstant(product.getCreatedAt(), ZoneId.systemDefault());
-        archived.setListingDate(listingDate);
-
-        // Set additional info from SoldOutsideResponse:
-        archived.setFinalSoldPrice(new BigDecimal(soldOutsideResponse.getSoldPrice()));
-        archived.setReasonForRemoval(soldOutsideResponse.getReason());  // repurposing this field for sold-outside reason
-
-        // Convert soldDate (java.util.Date) to LocalDateTime for statusChangeDate.
-        LocalDateTime soldDate = LocalDateTime.ofInstant(soldOutsideResponse.getSoldDate().toInstant(), ZoneId.systemDefault());
-        archived.setStatusChangeDate(soldDate);
-
-        // Calculate dealCompletionTime in days between listingDate and soldDate.
-        long daysBetween = ChronoUnit.DAYS.between(listingDate, soldDate);
-        archived.setDealCompletionTime(daysBetween);
-
-        // Set the SoldToCollegeStudent flag from the response.
-        archived.setSoldToCollegeStudent(soldOutsideResponse.isUniversityStudent());
-
-        // Set status to SOLD_OUTSIDE (ensure this exists in your ProductStatus enum)
-        archived.setStatus(ProductStatus.SOLD_OUTSIDE_PLATFORM);
-
-        // Optionally, set confirmationStatus to a specific value or leave as default.
-        // archived.setConfirmationStatus(ConfirmationStatus.PENDING);
-
-        // Save the archived product.
-        archivedProductsRepo.save(archived);
-
-        // Remove the original product (or mark it as inactive, as per your business logic).
-        productRepo.delete(product);
-
+        // the reason field doubles as the sold-outside note, as it always has in the archive
+        closeListing(productId, ProductStatus.SOLD_OUTSIDE_PLATFORM,
+                soldOutsideResponse.getSoldDate().toInstant(),
+                new BigDecimal(soldOutsideResponse.getSoldPrice()),
+                soldOutsideResponse.getReason(),
+                soldOutsideResponse.isUniversityStudent());
         return true;
     }
 
     @Override
+    @Transactional
     public boolean soldInsidePlatform(Integer productId, String email, int price) throws ProductException {
+        closeListing(productId, ProductStatus.SOLD_VIA_PLATFORM, Instant.now(), BigDecimal.valueOf(price), null, null);
+        return true;
+    }
 
-        // Fetch the product by ID; throw exception if not found.
-        Product product = productRepo.findById(productId)
+    /**
+     * Shared by every way a listing can leave the feed. Only the status and closing details are written
+     * here; ProductArchivalServiceImpl later copies the row into archived_products and deletes it with its
+     * images, wishlists and chats, outside of any user request.
+     */
+    private ProductSnapshot closeListing(Integer productId, ProductStatus status, Instant changedAt,
+                                         BigDecimal finalSoldPrice, String reason, Boolean soldToCollegeStudent) throws ProductException {
+        ProductSnapshot product = productRepo.findSnapshotById(productId)
                 .orElseThrow(() -> new ProductException("Product not found with id: " + productId));
 
-        // Create a new ArchivedProducts instance and copy product-related fields.
-        ArchivedProducts archived = new ArchivedProducts();
-        archived.setTitle(product.getName());
-        archived.setDescription(product.getDescription());
-        // Assuming category is an enum; convert to string if needed.
-        archived.setCategory(product.getCategory());
-        System.out.println("soldOutsideProduct : : "+ product.getPrice());
-
-        archived.setPrice(product.getPrice());
-        archived.setSellerId(product.getSeller().getId());
-        archived.setUniversityId(product.getUniversity().getId());
-
-        // Use product's createdAt as the listing date.
-        LocalDateTime listingDate = LocalDateTime.ofInstant(product.getCreatedAt(), ZoneId.systemDefault());
-        archived.setListingDate(listingDate);
-
-        // Set additional info from SoldOutsideResponse:
-        archived.setFinalSoldPrice(BigDecimal.valueOf(price));  // repurposing this field for sold-outside reason
-
-        // Convert soldDate (java.util.Date) to LocalDateTime for statusChangeDate.
-        LocalDateTime soldDate = LocalDateTime.ofInstant(Instant.now(), ZoneId.systemDefault());
-        archived.setStatusChangeDate(soldDate);
-
-        // Calculate dealCompletionTime in days between listingDate and soldDate.
-        long daysBetween = ChronoUnit.DAYS.between(listingDate, soldDate);
-        archived.setDealCompletionTime(daysBetween);
-
-        // Set the SoldToCollegeStudent flag from the response.
-    //    archived.setSoldToCollegeStudent(soldOutsideResponse.isUniversityStudent());
-
-        // Set status to SOLD_OUTSIDE (ensure this exists in your ProductStatus enum)
-        archived.setStatus(ProductStatus.SOLD_VIA_PLATFORM);
-
-        // Optionally, set confirmationStatus to a specific value or leave as default.
-        // archived.setConfirmationStatus(ConfirmationStatus.PENDING);
-
-        // Save the archived product.
-        archivedProductsRepo.save(archived);
-
-        // Remove the original product (or mark it as inactive, as per your business logic).
-        productRepo.delete(product);
+        if (productRepo.close(productId, status, changedAt, Instant.now(), finalSoldPrice, reason, soldToCollegeStudent) == 0) {
+            throw new ProductException("Product is no longer listed: " + productId);
+        }
+        ProductChangedEvent.Type type = status == ProductStatus.SOLD_VIA_PLATFORM || status == ProductStatus.SOLD_OUTSIDE_PLATFORM
+                ? ProductChangedEvent.Type.SOLD
+                : ProductChangedEvent.Type.REMOVED;
+        eventPublisher.publishEvent(new ProductChangedEvent(type, product));
+        return product;
+    }
 
-        return true;
 
+    // Lets the search index and other in-memory views follow the products table
+    private void publishChange(ProductChangedEvent.Type type, Product product) {
+        eventPublisher.publishEvent(new ProductChangedEvent(type, ProductSnapshot.of(product)));
     }
 
-
 }
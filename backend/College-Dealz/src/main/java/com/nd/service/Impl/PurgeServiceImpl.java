@@ -0,0 +1,245 @@
+package com.nd.service.Impl;
+
+import com.nd.dto.ProductSnapshot;
+import com.nd.entities.PurgeJob;
+import com.nd.enums.PurgeJobStatus;
+import com.nd.enums.PurgeTarget;
+import com.nd.enums.ReferenceType;
+import com.nd.events.ProductChangedEvent;
+import com.nd.exceptions.ResourceNotFoundException;
+import com.nd.repositories.ProductRepo;
+import com.nd.repositories.PurgeJobRepo;
+import com.nd.repositories.TokenRepository;
+import com.nd.repositories.UserRepo;
+import com.nd.service.PurgeService;
+import com.nd.service.S3ImageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deletes products and users without JPA cascades. The request only marks the aggregate deleted and
+ * queues a PurgeJob; a scheduled runner then removes the children bottom-up with plain
+ * DELETE ... LIMIT statements, so no entity is loaded and no statement holds locks for long.
+ * Every step is idempotent, so a job interrupted by a restart simply runs again from the top, and a failed job is
+ * retried the same way with exponential backoff until it runs out of attempts.
+ */
+@Service
+public class PurgeServiceImpl implements PurgeService {
+
+    private static final int BATCH_SIZE = 1000;
+
+    // ids of the products a job owns: the one product, or everything the user sells
+    private static final String PRODUCT_OF_PRODUCT_JOB = "?";
+    private static final String PRODUCTS_OF_USER_JOB = "SELECT product_id FROM products WHERE seller_id = ?";
+
+    private final Logger logger = LoggerFactory.getLogger(PurgeServiceImpl.class);
+
+    @Value("${purge.max-attempts:5}")
+    private int maxAttempts;
+
+    // delay before the first retry, doubled after every further failure
+    @Value("${purge.retry-backoff-ms:60000}")
+    private long retryBackoffMs;
+
+    @Autowired
+    private PurgeJobRepo purgeJobRepo;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private TokenRepository tokenRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private S3ImageService s3ImageService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Override
+    @Transactional
+    public PurgeJob purgeProduct(int productId) {
+        ProductSnapshot product = productRepo.findSnapshotById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
+
+        productRepo.markDeleted(productId, Instant.now());
+        eventPublisher.publishEvent(new ProductChangedEvent(ProductChangedEvent.Type.REMOVED, product));
+        return enqueue(PurgeTarget.PRODUCT, productId);
+    }
+
+    @Override
+    @Transactional
+    public PurgeJob purgeUser(int userId) {
+        if (userRepo.markDeleted(userId) == 0) {
+            throw new ResourceNotFoundException("User", "Id", userId);
+        }
+        tokenRepository.logOutAllByUser(userId);
+
+        List<ProductSnapshot> listings = productRepo.findLiveSnapshotsBySellerId(userId);
+        productRepo.markDeletedBySellerId(userId, Instant.now());
+        listings.forEach(product -> eventPublisher.publishEvent(new ProductChangedEvent(ProductChangedEvent.Type.REMOVED, product)));
+        return enqueue(PurgeTarget.USER, userId);
+    }
+
+    @Override
+    public PurgeJob getJob(long jobId) {
+        return purgeJobRepo.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Purge job", "id", jobId));
+    }
+
+    @Override
+    public List<PurgeJob> getRecentJobs(int limit) {
+        return purgeJobRepo.findAllByOrderByIdDesc(PageRequest.of(0, Math.max(1, Math.min(limit, 100))));
+    }
+
+    // RUNNING jobs are picked up again too: those were cut short by a restart
+    @Scheduled(fixedDelayString = "${purge.poll-interval-ms:5000}")
+    public void runPendingJobs() {
+        for (PurgeJob job : purgeJobRepo.findByStatusInOrderById(List.of(PurgeJobStatus.QUEUED, PurgeJobStatus.RUNNING))) {
+            run(job);
+        }
+        for (PurgeJob job : purgeJobRepo.findByStatusAndNextAttemptAtLessThanEqualOrderById(PurgeJobStatus.FAILED, Instant.now())) {
+            logger.info("Retrying purge job {} (attempt {} of {})", job.getId(), job.getAttempts() + 1, maxAttempts);
+            run(job);
+        }
+    }
+
+    private void run(PurgeJob job) {
+        job.setStatus(PurgeJobStatus.RUNNING);
+        if (job.getStartedAt() == null) {
+            job.setStartedAt(Instant.now());
+        }
+        purgeJobRepo.save(job);
+        try {
+            if (job.getTarget() == PurgeTarget.PRODUCT) {
+                purgeProducts(job, PRODUCT_OF_PRODUCT_JOB);
+                deleteInBatches(job, "products", "product_id = ?", job.getTargetId());
+            } else {
+                purgeProducts(job, PRODUCTS_OF_USER_JOB);
+                deleteInBatches(job, "products", "seller_id = ?", job.getTargetId());
+                purgeUserRows(job);
+            }
+            job.setStatus(PurgeJobStatus.DONE);
+            job.setCurrentStep(null);
+            job.setNextAttemptAt(null);
+        } catch (RuntimeException ex) {
+            job.setStatus(PurgeJobStatus.FAILED);
+            job.setAttempts(job.getAttempts() + 1);
+            String error = String.valueOf(ex.getMessage());
+            job.setError(error.length() > 1000 ? error.substring(0, 1000) : error);
+            if (job.getAttempts() < maxAttempts) {
+                long backoffMs = retryBackoffMs << Math.min(job.getAttempts() - 1, 20);
+                job.setNextAttemptAt(Instant.now().plusMillis(backoffMs));
+                logger.warn("Purge job {} failed at step {}, retrying in {} ms", job.getId(), job.getCurrentStep(), backoffMs, ex);
+            } else {
+                // nothing picks the job up again: the product or user stays marked deleted with rows left behind
+                job.setNextAttemptAt(null);
+                logger.error("Purge job {} failed at step {} after {} attempts, giving up; it needs manual cleanup",
+                        job.getId(), job.getCurrentStep(), job.getAttempts(), ex);
+            }
+        }
+        job.setFinishedAt(Instant.now());
+        purgeJobRepo.save(job);
+    }
+
+    // Children of the job's products, leaves first; the product rows themselves go last
+    private void purgeProducts(PurgeJob job, String productIds) {
+        int id = job.getTargetId();
+        deleteInBatches(job, "messages",
+                "chat_id IN (SELECT id FROM chats WHERE product_id IN (" + productIds + "))", id);
+        deleteInBatches(job, "chats", "product_id IN (" + productIds + ")", id);
+        deleteInBatches(job, "wishlists", "product_id IN (" + productIds + ")", id);
+        deleteImages(job, productIds);
+        String productNotifications = "SELECT notification_id FROM notifications WHERE reference_type = ? " +
+                "AND reference_id IN (" + productIds + ")";
+        int productReference = ReferenceType.PRODUCT_ITEM.ordinal();
+        deleteInBatches(job, "user_notifications", "notification_id IN (" + productNotifications + ")", productReference, id);
+        deleteInBatches(job, "notifications", "reference_type = ? AND reference_id IN (" + productIds + ")", productReference, id);
+        deleteInBatches(job, "product_relist_history", "product_id IN (" + productIds + ")", id);
+    }
+
+    // What the user has on other people's listings and on their own account
+    private void purgeUserRows(PurgeJob job) {
+        int userId = job.getTargetId();
+        deleteInBatches(job, "messages",
+                "chat_id IN (SELECT id FROM chats WHERE sender_id = ? OR receiver_id = ?) OR sender_id = ? OR receiver_id = ?",
+                userId, userId, userId, userId);
+        deleteInBatches(job, "chats", "sender_id = ? OR receiver_id = ?", userId, userId);
+        deleteInBatches(job, "wishlists", "user_id = ?", userId);
+        deleteInBatches(job, "wantlist", "user_id = ?", userId);
+        deleteInBatches(job, "token", "user_id = ?", userId);
+        deleteInBatches(job, "user_notifications", "user_id = ?", userId);
+        deleteInBatches(job, "user_roles", "user_id = ?", userId);
+        deleteInBatches(job, "users", "user_id = ?", userId);
+    }
+
+    // Rows of a batch are deleted before their S3 references are released: a crash in between leaks a reference
+    // (the object stays) instead of releasing it a second time when the job reruns, which could free bytes another
+    // listing still uses
+    private void deleteImages(PurgeJob job, String productIds) {
+        step(job, "image");
+        String select = "SELECT image_id, s3_url FROM image WHERE product_id IN (" + productIds + ") LIMIT " + BATCH_SIZE;
+        List<Map<String, Object>> batch;
+        do {
+            batch = jdbcTemplate.queryForList(select, job.getTargetId());
+            if (batch.isEmpty()) {
+                break;
+            }
+            Object[] imageIds = batch.stream().map(row -> row.get("image_id")).toArray();
+            job.setRowsDeleted(job.getRowsDeleted() + jdbcTemplate.update(
+                    "DELETE FROM image WHERE image_id IN (" + placeholders(imageIds.length) + ")", imageIds));
+            List<String> s3Urls = batch.stream().map(row -> (String) row.get("s3_url")).toList();
+            job.setS3ObjectsDeleted(job.getS3ObjectsDeleted() + s3ImageService.releaseAll(s3Urls));
+            purgeJobRepo.save(job);
+        } while (batch.size() == BATCH_SIZE);
+    }
+
+    private void deleteInBatches(PurgeJob job, String table, String where, Object... args) {
+        step(job, table);
+        String delete = "DELETE FROM " + table + " WHERE " + where + " LIMIT " + BATCH_SIZE;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(delete, args);
+            if (deleted > 0) {
+                job.setRowsDeleted(job.getRowsDeleted() + deleted);
+                purgeJobRepo.save(job);
+            }
+        } while (deleted == BATCH_SIZE);
+    }
+
+    private void step(PurgeJob job, String table) {
+        job.setCurrentStep(table);
+        purgeJobRepo.save(job);
+    }
+
+    private PurgeJob enqueue(PurgeTarget target, int targetId) {
+        PurgeJob job = new PurgeJob();
+        job.setTarget(target);
+        job.setTargetId(targetId);
+        job.setCreatedAt(Instant.now());
+        return purgeJobRepo.save(job);
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,160 @@
+package com.nd.service.Impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nd.dto.ShareProductDto;
+import com.nd.dto.SharedProductSnapshot;
+import com.nd.events.ProductChangedEvent;
+import com.nd.service.ProductService;
+import com.nd.service.SharedProductSnapshotService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Shared-product links are mostly fetched by link-preview crawlers, so the JSON and the OpenGraph page
+ * are rendered once and kept in a bounded in-memory LRU until the product changes or leaves the feed.
+ */
+@Service
+public class SharedProductSnapshotServiceImpl implements SharedProductSnapshotService {
+
+    private static final int MAX_DESCRIPTION_LENGTH = 200;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.frontend-url:https://college-dealz.vercel.app}")
+    private String frontendUrl;
+
+    private final Map<Integer, SharedProductSnapshot> snapshots;
+
+    // bumped on every eviction so a snapshot rendered from older data is not stored after it
+    private long generation = 0;
+
+    public SharedProductSnapshotServiceImpl(@Value("${shared.snapshot.max-entries:5000}") int maxEntries) {
+        this.snapshots = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, SharedProductSnapshot> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public SharedProductSnapshot getSnapshot(int productId) {
+        long renderedAt;
+        synchronized (this) {
+            SharedProductSnapshot snapshot = snapshots.get(productId);
+            if (snapshot != null) {
+                return snapshot;
+            }
+            renderedAt = generation;
+        }
+
+        SharedProductSnapshot snapshot = render(productService.getsharedProduct(productId));
+
+        synchronized (this) {
+            if (generation == renderedAt) {
+                snapshots.put(productId, snapshot);
+            }
+        }
+        return snapshot;
+    }
+
+    @Override
+    public synchronized void evict(int productId) {
+        generation++;
+        snapshots.remove(productId);
+    }
+
+    // Edited products are rendered again on the next hit; closed ones 404 from then on, since only live
+    // listings are rendered (see ProductService.getsharedProduct)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        evict(event.getProduct().getId());
+    }
+
+    private SharedProductSnapshot render(ShareProductDto product) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(product);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not render shared product " + product.getProduct_id(), e);
+        }
+        byte[] html = renderPage(product).getBytes(StandardCharsets.UTF_8);
+
+        CRC32 checksum = new CRC32();
+        checksum.update(json);
+        String eTag = "s-" + product.getProduct_id() + "-" + Long.toHexString(checksum.getValue());
+        return new SharedProductSnapshot(json, html, eTag);
+    }
+
+    private String renderPage(ShareProductDto product) {
+        String url = frontendUrl + "/product/public/" + product.getProduct_id();
+        String title = escape(product.getProduct_name());
+        String description = escape(abbreviate(product.getProduct_description()));
+        String price = product.getProduct_price() != null ? product.getProduct_price().stripTrailingZeros().toPlainString() : "";
+        List<String> images = product.getImage_urls();
+
+        StringBuilder page = new StringBuilder(1024);
+        page.append("<!DOCTYPE html>\n<html lang=\"en\">\n<head>\n")
+                .append("<meta charset=\"utf-8\">\n")
+                .append("<title>").append(title).append(" | College Dealz</title>\n")
+                .append("<meta name=\"description\" content=\"").append(description).append("\">\n")
+                .append("<meta property=\"og:type\" content=\"product\">\n")
+                .append("<meta property=\"og:site_name\" content=\"College Dealz\">\n")
+                .append("<meta property=\"og:title\" content=\"").append(title)
+                .append(price.isEmpty() ? "" : " - ₹" + price).append("\">\n")
+                .append("<meta property=\"og:description\" content=\"").append(description).append("\">\n")
+                .append("<meta property=\"og:url\" content=\"").append(escape(url)).append("\">\n");
+        if (images != null && !images.isEmpty() && !images.get(0).startsWith("data:")) {
+            page.append("<meta property=\"og:image\" content=\"").append(escape(images.get(0))).append("\">\n")
+                    .append("<meta name=\"twitter:card\" content=\"summary_large_image\">\n");
+        }
+        if (!price.isEmpty()) {
+            page.append("<meta property=\"product:price:amount\" content=\"").append(price).append("\">\n")
+                    .append("<meta property=\"product:price:currency\" content=\"INR\">\n");
+        }
+        // crawlers read the tags above; people are sent on to the app
+        page.append("<link rel=\"canonical\" href=\"").append(escape(url)).append("\">\n")
+                .append("<meta http-equiv=\"refresh\" content=\"0; url=").append(escape(url)).append("\">\n")
+                .append("</head>\n<body>\n<a href=\"").append(escape(url)).append("\">").append(title).append("</a>\n")
+                .append("</body>\n</html>\n");
+        return page.toString();
+    }
+
+    private static String abbreviate(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.length() <= MAX_DESCRIPTION_LENGTH ? text : text.substring(0, MAX_DESCRIPTION_LENGTH - 3) + "...";
+    }
+
+    private static String escape(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (char c : text.toCharArray()) {
+            switch (c) {
+                case '&' -> escaped.append("&amp;");
+                case '<' -> escaped.append("&lt;");
+                case '>' -> escaped.append("&gt;");
+                case '"' -> escaped.append("&quot;");
+                case '\'' -> escaped.append("&#39;");
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
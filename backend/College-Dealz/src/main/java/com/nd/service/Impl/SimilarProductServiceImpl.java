@@ -0,0 +1,118 @@
+package com.nd.service.Impl;
+
+import com.nd.dto.ProductSnapshot;
+import com.nd.repositories.WishlistRepository;
+import com.nd.search.ProductIndex;
+import com.nd.search.SimilarityIndex;
+import com.nd.service.SimilarProductService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves "similar items" from a neighbor table per university. Neighbors are worked out when a listing
+ * is indexed or two listings are wishlisted together, and each listing keeps only its best
+ * NEIGHBORS_PER_PRODUCT, so a request is a map lookup.
+ */
+@Service
+public class SimilarProductServiceImpl implements SimilarProductService, ProductIndex {
+
+    private static final int NEIGHBORS_PER_PRODUCT = 12;
+    // only a user's most recent wishlist entries are paired, so one long wishlist stays cheap
+    private static final int MAX_WISHLIST_PAIRED = 50;
+
+    private final Logger logger = LoggerFactory.getLogger(SimilarProductServiceImpl.class);
+
+    @Autowired
+    private WishlistRepository wishlistRepository;
+
+    private final Map<Integer, SimilarityIndex> indexes = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> universityOf = new ConcurrentHashMap<>();
+
+    @Override
+    public List<Integer> getSimilar(int productId, int limit) {
+        Integer universityId = universityOf.get(productId);
+        if (universityId == null) {
+            return List.of();
+        }
+        return index(universityId).neighbors(productId, Math.max(1, Math.min(limit, NEIGHBORS_PER_PRODUCT)));
+    }
+
+    @Override
+    public void recordWishlist(int userId, int productId) {
+        Integer universityId = universityOf.get(productId);
+        if (universityId == null) {
+            return;
+        }
+        SimilarityIndex index = index(universityId);
+        for (Integer otherId : wishlistRepository.findProductIdsByUserId(userId)) {
+            if (universityId.equals(universityOf.get(otherId))) {
+                index.addCoWishlist(productId, otherId);
+            }
+        }
+    }
+
+    @Override
+    public void index(ProductSnapshot product) {
+        universityOf.put(product.getId(), product.getUniversityId());
+        index(product.getUniversityId()).put(product);
+    }
+
+    @Override
+    public void remove(int universityId, int productId) {
+        universityOf.remove(productId);
+        SimilarityIndex index = indexes.get(universityId);
+        if (index != null) {
+            index.remove(productId);
+        }
+    }
+
+    // Replays existing wishlists so co-wishlisting counts survive a restart
+    @Override
+    public void loaded() {
+        int pairs = 0;
+        Integer currentUser = null;
+        List<Integer> wishlist = new ArrayList<>();
+        for (Object[] row : wishlistRepository.findUserProductPairs()) {
+            Integer userId = (Integer) row[0];
+            if (!Objects.equals(userId, currentUser)) {
+                pairs += pairWishlist(wishlist);
+                wishlist.clear();
+                currentUser = userId;
+            }
+            if (wishlist.size() < MAX_WISHLIST_PAIRED) {
+                wishlist.add((Integer) row[1]);
+            }
+        }
+        pairs += pairWishlist(wishlist);
+        logger.info("Similar items seeded with {} co-wishlisted pairs", pairs);
+    }
+
+    private int pairWishlist(List<Integer> productIds) {
+        int pairs = 0;
+        for (int i = 0; i < productIds.size(); i++) {
+            Integer universityId = universityOf.get(productIds.get(i));
+            if (universityId == null) {
+                continue;
+            }
+            for (int j = i + 1; j < productIds.size(); j++) {
+                if (universityId.equals(universityOf.get(productIds.get(j)))) {
+                    index(universityId).addCoWishlist(productIds.get(i), productIds.get(j));
+                    pairs++;
+                }
+            }
+        }
+        return pairs;
+    }
+
+    private SimilarityIndex index(int universityId) {
+        return indexes.computeIfAbsent(universityId, id -> new SimilarityIndex(NEIGHBORS_PER_PRODUCT));
+    }
+}
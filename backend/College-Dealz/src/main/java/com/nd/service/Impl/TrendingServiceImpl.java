@@ -0,0 +1,154 @@
+package com.nd.service.Impl;
+
+import com.nd.dto.ProductSnapshot;
+import com.nd.repositories.MessageRepo;
+import com.nd.repositories.WishlistRepository;
+import com.nd.search.ProductIndex;
+import com.nd.search.TrendingBoard;
+import com.nd.service.TrendingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a time-decayed popularity score per live listing and a top-K board per university.
+ * Request threads only drop events into a pending map; a scheduled task folds them into the boards,
+ * so reading the trending feed is a walk over at most K ids.
+ */
+@Service
+public class TrendingServiceImpl implements TrendingService, ProductIndex {
+
+    private static final int TOP_K = 200;
+    private static final double HALF_LIFE_HOURS = 72;
+    private static final Instant DECAY_ORIGIN = Instant.parse("2024-01-01T00:00:00Z");
+
+    // how much each signal counts; a new listing gets a small head start so fresh items can surface
+    private static final double LISTED_WEIGHT = 0.5;
+    private static final double VIEW_WEIGHT = 1;
+    private static final double WISHLIST_WEIGHT = 4;
+    private static final double CHAT_WEIGHT = 6;
+
+    // older activity is below 1/16 of its weight and not worth replaying at startup
+    private static final Duration SEED_WINDOW = Duration.ofHours((long) (HALF_LIFE_HOURS * 4));
+
+    private final Logger logger = LoggerFactory.getLogger(TrendingServiceImpl.class);
+
+    @Autowired
+    private WishlistRepository wishlistRepository;
+
+    @Autowired
+    private MessageRepo messageRepo;
+
+    private final Map<Integer, TrendingBoard> boards = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> universityOf = new ConcurrentHashMap<>();
+    private final Map<Integer, Double> pending = new ConcurrentHashMap<>();
+
+    private volatile boolean ready = false;
+
+    @Override
+    public void recordView(int productId) {
+        record(productId, VIEW_WEIGHT, Instant.now());
+    }
+
+    @Override
+    public void recordWishlist(int productId) {
+        record(productId, WISHLIST_WEIGHT, Instant.now());
+    }
+
+    @Override
+    public void recordChat(int productId) {
+        record(productId, CHAT_WEIGHT, Instant.now());
+    }
+
+    @Override
+    public List<Integer> getTrending(int universityId, int offset, int limit) {
+        TrendingBoard board = boards.get(universityId);
+        return board == null ? List.of() : board.top(offset, limit);
+    }
+
+    @Override
+    public int countTrending(int universityId) {
+        TrendingBoard board = boards.get(universityId);
+        return board == null ? 0 : board.size();
+    }
+
+    @Scheduled(fixedDelay = 5000)
+    public void applyPendingEvents() {
+        if (!ready) {
+            return;
+        }
+        for (Integer productId : pending.keySet()) {
+            Double logWeight = pending.remove(productId);
+            Integer universityId = universityOf.get(productId);
+            if (logWeight != null && universityId != null) {
+                board(universityId).add(productId, logWeight);
+            }
+        }
+    }
+
+    @Override
+    public void index(ProductSnapshot product) {
+        universityOf.put(product.getId(), product.getUniversityId());
+        Instant listedAt = product.getPostDate() != null ? product.getPostDate() : Instant.now();
+        board(product.getUniversityId()).register(product.getId(), logWeight(LISTED_WEIGHT, listedAt));
+    }
+
+    @Override
+    public void remove(int universityId, int productId) {
+        universityOf.remove(productId);
+        pending.remove(productId);
+        TrendingBoard board = boards.get(universityId);
+        if (board != null) {
+            board.remove(productId);
+        }
+    }
+
+    // Replays recent wishlist adds and chat starts so a restart does not flatten the ranking
+    @Override
+    public void loaded() {
+        Instant since = Instant.now().minus(SEED_WINDOW);
+        int events = 0;
+        for (Object[] row : wishlistRepository.findProductActivitySince(since)) {
+            events += seed((Integer) row[0], WISHLIST_WEIGHT, (Instant) row[1]);
+        }
+        LocalDate sinceDay = LocalDate.ofInstant(since, ZoneId.systemDefault());
+        for (Object[] row : messageRepo.findChatStartsSince(sinceDay)) {
+            events += seed((Integer) row[0], CHAT_WEIGHT, ((LocalDate) row[1]).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        }
+        ready = true;
+        logger.info("Trending boards seeded with {} recent events", events);
+    }
+
+    private int seed(Integer productId, double weight, Instant at) {
+        Integer universityId = universityOf.get(productId);
+        if (universityId == null || at == null) {
+            return 0;
+        }
+        board(universityId).add(productId, logWeight(weight, at));
+        return 1;
+    }
+
+    private void record(int productId, double weight, Instant at) {
+        pending.merge(productId, logWeight(weight, at), TrendingBoard::logAdd);
+    }
+
+    private TrendingBoard board(int universityId) {
+        return boards.computeIfAbsent(universityId, id -> new TrendingBoard(TOP_K));
+    }
+
+    // log2 of weight * 2^(hours since origin / half-life)
+    private static double logWeight(double weight, Instant at) {
+        double hours = Duration.between(DECAY_ORIGIN, at).toMinutes() / 60.0;
+        return Math.log(weight) / Math.log(2) + hours / HALF_LIFE_HOURS;
+    }
+}
@@ -12,6 +12,7 @@ import com.nd.repositories.TokenRepository;
 import com.nd.repositories.UniversityRepo;
 import com.nd.repositories.UserRepo;
 import com.nd.service.JwtService;
+import com.nd.service.PurgeService;
 import com.nd.service.UserService;
 import lombok.*;
 import org.modelmapper.ModelMapper;
@@ -45,6 +46,8 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private TokenRepository tokenRepository;
     @Autowired
+    private PurgeService purgeService;
+    @Autowired
     JwtService jwtService;
 
 
@@ -74,12 +77,10 @@ public class UserServiceImpl implements UserService {
         return null;
     }
 
+    // Disables the account at once; its listings, chats and other rows are purged in the background
     @Override
     public void deleteUser(Integer userId) {
-        User user = this.userRepo.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "Id", userId));
-        this.userRepo.delete(user);
-
+        this.purgeService.purgeUser(userId);
     }
 
 
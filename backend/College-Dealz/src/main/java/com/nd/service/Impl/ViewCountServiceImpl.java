@@ -0,0 +1,83 @@
+package com.nd.service.Impl;
+
+import com.nd.service.ViewCountService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts product views in memory and adds them to products.view_count in one batched UPDATE per
+ * flush interval, instead of writing the row on every view. Each product gets a LongAdder, which
+ * stripes its cells across threads so a popular listing does not become a contention point.
+ * A crash loses at most the views since the last flush.
+ */
+@Service
+public class ViewCountServiceImpl implements ViewCountService {
+
+    private static final String FLUSH_SQL =
+            "UPDATE products SET view_count = view_count + ? WHERE product_id = ?";
+
+    private final Logger logger = LoggerFactory.getLogger(ViewCountServiceImpl.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final Map<Integer, LongAdder> pending = new ConcurrentHashMap<>();
+
+    @Override
+    public void recordView(int productId) {
+        pending.computeIfAbsent(productId, id -> new LongAdder()).increment();
+    }
+
+    @Override
+    public long getViewCount(int productId, Long storedCount) {
+        LongAdder unflushed = pending.get(productId);
+        return (storedCount != null ? storedCount : 0) + (unflushed != null ? unflushed.sum() : 0);
+    }
+
+    @Scheduled(fixedDelayString = "${views.flush-interval-ms:30000}")
+    public void flush() {
+        List<Object[]> increments = new ArrayList<>();
+        for (Map.Entry<Integer, LongAdder> entry : pending.entrySet()) {
+            long views = entry.getValue().sumThenReset();
+            if (views > 0) {
+                increments.add(new Object[]{views, entry.getKey()});
+            } else {
+                // idle for a whole interval; a view racing this removal is the only one that can be dropped
+                pending.remove(entry.getKey(), entry.getValue());
+            }
+        }
+        if (increments.isEmpty()) {
+            return;
+        }
+        // same lock order on every flush
+        increments.sort((a, b) -> Integer.compare((Integer) a[1], (Integer) b[1]));
+        try {
+            // all or nothing: re-adding increments that were already committed would count those views twice
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(FLUSH_SQL, increments));
+        } catch (RuntimeException ex) {
+            // put the views back so the next flush retries them
+            increments.forEach(row -> pending.computeIfAbsent((Integer) row[1], id -> new LongAdder()).add((Long) row[0]));
+            logger.warn("Could not flush {} view counts, will retry", increments.size(), ex);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
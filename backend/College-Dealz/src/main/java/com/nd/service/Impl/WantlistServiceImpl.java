@@ -11,6 +11,7 @@ import com.nd.repositories.UserRepo;
 import com.nd.repositories.WantlistRepo;
 import com.nd.service.JwtService;
 import com.nd.service.NotificationService;
+import com.nd.service.PersonalizationService;
 import com.nd.service.WantlistService;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
@@ -37,6 +38,8 @@ public class WantlistServiceImpl implements WantlistService {
 
     private final JwtService jwtService;
 
+    private final PersonalizationService personalizationService;
+
     @Override
     public WantlistDto addProductToWantlist(Integer userId, WantlistDto wantlistDto) {
         User user = userRepository.findById(userId)
@@ -53,6 +56,7 @@ public class WantlistServiceImpl implements WantlistService {
         wantlist.setCreatedAt(Instant.now());
         wantlist.setUpdatedAt(Instant.now());
         Wantlist savedWantlist = wantlistRepository.save(wantlist);
+        personalizationService.invalidate(userId);
 
         // ✅ Trigger notification for all users except the one who added the item
        notificationService.createNotificationForAllUsers(userId, savedWantlist.getId());
@@ -102,6 +106,7 @@ public class WantlistServiceImpl implements WantlistService {
 
         // Delete from active wantlist
         wantlistRepository.deleteById(wantlistId);
+        personalizationService.invalidate(archivedWantlist.getUserId());
     }
 
 
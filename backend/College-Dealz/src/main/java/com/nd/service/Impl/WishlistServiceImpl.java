@@ -6,12 +6,17 @@ import com.nd.entities.Product;
 import com.nd.entities.Wishlist;
 import com.nd.exceptions.ResourceNotFoundException;
 import com.nd.repositories.ProductRepo;
+import com.nd.repositories.ProductSpecifications;
 import com.nd.repositories.UserRepo;
 import com.nd.repositories.WishlistRepository;
 import com.nd.service.JwtService;
+import com.nd.service.PersonalizationService;
 import com.nd.service.ProductService;
+import com.nd.service.SimilarProductService;
+import com.nd.service.TrendingService;
 import com.nd.service.WishlistService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -37,6 +42,15 @@ public class WishlistServiceImpl implements WishlistService {
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private PersonalizationService personalizationService;
+
+    @Autowired
+    private SimilarProductService similarProductService;
+
     @Override
     @Transactional
     public WishlistDto addToWishlist(Integer productId, String authHeader) {
@@ -53,6 +67,9 @@ public class WishlistServiceImpl implements WishlistService {
         wishlist.setUpdatedAt(Instant.now());
 
         Wishlist wishlistSaved = wishlistRepository.save(wishlist);
+        trendingService.recordWishlist(productId);
+        personalizationService.invalidate(userId);
+        similarProductService.recordWishlist(userId, productId);
 
         return mapToDto(wishlistSaved);
     }
@@ -60,10 +77,8 @@ public class WishlistServiceImpl implements WishlistService {
     @Override
     public List<ProductDto> getWishlistByUser(String authHeader) {
         int userId = jwtService.getUserIdFromToken(authHeader);
-        List<Product> wishlistProducts = wishlistRepository.findAllProductsByUserId(userId);
-
-        return wishlistProducts.stream()
-                .map(product -> productService.mapToDto(product))
+        return productRepo.findCards(ProductSpecifications.wishlistedBy(userId).and(ProductSpecifications.isLive()), Pageable.unpaged()).stream()
+                .map(productService::mapCardToDto)
                 .collect(Collectors.toList());
         }
 
@@ -76,6 +91,7 @@ public class WishlistServiceImpl implements WishlistService {
                         wishlistRepository::delete,
                         () -> { throw new ResourceNotFoundException("Product not found in wishlist"); }
                 );
+        personalizationService.invalidate(userId);
     }
 
     @Override
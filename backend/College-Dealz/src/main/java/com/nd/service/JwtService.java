@@ -21,6 +21,7 @@ import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
 
@@ -194,6 +195,20 @@ public class JwtService {
                 new ResourceNotFoundException("User with email '" + email + "' not found"));
     }
 
+    // {user id, university id} from a single query, for write paths that need both
+    public int[] getUserAndUniversityIdFromToken(String token) {
+        String email = getEmailFromToken(token);
+        List<Object[]> rows = userRepo.findIdAndUniversityIdByEmail(email);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("User with email '" + email + "' not found");
+        }
+        if (rows.get(0)[1] == null) {
+            throw new ResourceNotFoundException(
+                    "University information is not available for user with email '" + email + "'");
+        }
+        return new int[]{(Integer) rows.get(0)[0], (Integer) rows.get(0)[1]};
+    }
+
     public int getUniversityIdFromToken(String token) {
         String email = getEmailFromToken(token);
 
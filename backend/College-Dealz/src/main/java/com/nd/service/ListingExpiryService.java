@@ -0,0 +1,12 @@
+package com.nd.service;
+
+import java.time.Instant;
+
+public interface ListingExpiryService {
+
+    // When a listing posted (or relisted) at postedAt expires
+    Instant expiresAt(Instant postedAt);
+
+    // Sends due reminders and expires overdue listings; returns how many listings expired
+    int processDueListings();
+}
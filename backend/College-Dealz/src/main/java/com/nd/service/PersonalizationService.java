@@ -0,0 +1,17 @@
+package com.nd.service;
+
+import com.nd.dto.ProductCardDto;
+
+import java.util.List;
+
+public interface PersonalizationService {
+
+    // Sort field value for the "for you" feed
+    String SORT_FIELD = "for_you";
+
+    // Candidates ordered by how well they fit the user, their own listings left out
+    List<ProductCardDto> rank(int userId, List<ProductCardDto> candidates);
+
+    // Drops the cached profile after the user's wishlist, wantlist or chats change
+    void invalidate(int userId);
+}
@@ -0,0 +1,7 @@
+package com.nd.service;
+
+public interface ProductArchivalService {
+
+    // Moves sold and removed listings from products into archived_products; returns how many were moved
+    int archiveClosedListings();
+}
@@ -0,0 +1,10 @@
+package com.nd.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface ProductExportService {
+
+    // Writes every product as one JSON object per line (NDJSON) while reading them
+    void exportProducts(OutputStream out) throws IOException;
+}
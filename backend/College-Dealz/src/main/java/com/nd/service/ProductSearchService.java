@@ -0,0 +1,16 @@
+package com.nd.service;
+
+import com.nd.search.SearchHits;
+
+import java.util.List;
+
+public interface ProductSearchService {
+
+    // false until the startup load has finished
+    boolean isReady();
+
+    SearchHits search(int universityId, String query, int offset, int limit);
+
+    // Spelling-corrected versions of the query, best first; empty when every word is already known
+    List<String> suggestQueries(int universityId, String query, int max);
+}
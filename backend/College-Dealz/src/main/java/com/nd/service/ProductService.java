@@ -1,7 +1,13 @@
 package com.nd.service;
 
+import com.nd.dto.CursorPage;
+import com.nd.dto.FacetFilterRequest;
+import com.nd.dto.FacetSearchResultDto;
 import com.nd.dto.InterestedBuyerDto;
+import com.nd.dto.ProductCardDto;
 import com.nd.dto.ProductDto;
+import com.nd.dto.ProductSortFilterRequest;
+import com.nd.dto.SearchSuggestionDto;
 import com.nd.dto.ShareProductDto;
 import com.nd.dto.SoldOutsideResponse;
 import com.nd.entities.Chat;
@@ -11,7 +17,6 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.io.IOException;
-import java.math.BigDecimal;
 import java.util.List;
 
 public interface ProductService {
@@ -19,24 +24,26 @@ public interface ProductService {
      List<Chat> getChatByProductId(int productId) ;
     ProductDto createProduct(ProductDto productDto, String authHeader);
     ProductDto mapToDto(Product product);
+    ProductDto mapCardToDto(ProductCardDto card);
     ProductDto updateProduct(Integer productId, ProductDto productDto) throws IOException;
+    String getProductETag(Integer productId, String token);
     ProductDto getProductById(Integer productId, String token);
+    void recordRevalidatedView(Integer productId, String token);
+    long getViewCount(Integer productId);
     List<ProductDto> getAllProducts(String authHeader);
     List<ProductDto> getProductsByCategory(String category);
     List<ProductDto> getProductsBySellerId(String authHeader);
 
     ShareProductDto getsharedProduct(int id );
 
-   Page<ProductDto> getProductsByUniversityId(
-            int universityId,
-            String sortField,
-            String sortDir,
-            Integer page,
-            Integer size,
-            String category,
-            BigDecimal minPrice,
-            BigDecimal maxPrice);
+    Page<ProductDto> getProductsByUniversityId(int universityId, ProductSortFilterRequest request);
+    CursorPage<ProductDto> getProductsByUniversityIdAfterCursor(int universityId, ProductSortFilterRequest request);
     Page<ProductDto> searchProductsByUniversity(int universityId, String searchTerm, Pageable pageable);
+    Page<ProductDto> getPersonalizedProducts(int universityId, int userId, ProductSortFilterRequest request);
+    Page<ProductDto> getTrendingProducts(int universityId, ProductSortFilterRequest request);
+    FacetSearchResultDto getFacetedProducts(int universityId, FacetFilterRequest request);
+    List<ProductDto> getSimilarProducts(int productId, int limit);
+    SearchSuggestionDto searchWithSpellingCorrection(int universityId, String searchTerm, Pageable pageable);
 
     List<ProductDto> getProductsByUniversityId(Integer universityId);
     void deleteProduct(Integer productId);
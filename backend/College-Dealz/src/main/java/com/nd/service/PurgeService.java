@@ -0,0 +1,18 @@
+package com.nd.service;
+
+import com.nd.entities.PurgeJob;
+
+import java.util.List;
+
+public interface PurgeService {
+
+    // Hides the product right away and queues the deletion of its rows and images
+    PurgeJob purgeProduct(int productId);
+
+    // Disables the user and hides their listings right away, then queues the deletion of everything they own
+    PurgeJob purgeUser(int userId);
+
+    PurgeJob getJob(long jobId);
+
+    List<PurgeJob> getRecentJobs(int limit);
+}
@@ -1,18 +1,60 @@
 package com.nd.service;
 
+import com.nd.dto.ImageUploadStatsDto;
 import com.nd.entities.Image;
+import com.nd.enums.Rendition;
 import com.nd.repositories.ImageRepo;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.Delete;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
 
 @Service
 @RequiredArgsConstructor
@@ -20,10 +62,71 @@ public class S3ImageService {
 
     private final S3Client s3Client;
     private final ImageRepo imageRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    private final Logger logger = LoggerFactory.getLogger(S3ImageService.class);
+
+    private final UploadStats uploadStats = new UploadStats();
 
     private final String bucketName = "college-dealz-imagess";
     private final String region = "us-east-1"; // used in URL
 
+    private static final int MAX_KEYS_PER_DELETE = 1000;
+    private static final long UPLOAD_PERMIT_WAIT_SECONDS = 30;
+
+    // image_objects has one row per content key; taking and dropping references are single-row statements
+    private static final String ACQUIRE_SQL = "INSERT INTO image_objects (object_key, ref_count, uploaded, created_at) " +
+            "VALUES (?, 1, false, ?) ON DUPLICATE KEY UPDATE ref_count = ref_count + 1, released_at = NULL";
+    private static final String UPLOADED_SQL = "SELECT uploaded FROM image_objects WHERE object_key = ?";
+    private static final String MARK_UPLOADED_SQL = "UPDATE image_objects SET uploaded = true WHERE object_key = ?";
+    private static final String RELEASE_SQL = "UPDATE image_objects SET ref_count = ref_count - 1, released_at = ? " +
+            "WHERE object_key = ? AND ref_count > 0";
+    private static final String LOCK_UNREFERENCED_SQL = "SELECT object_key FROM image_objects WHERE object_key = ? AND ref_count = 0 FOR UPDATE";
+    private static final String DELETE_OBJECT_ROW_SQL = "DELETE FROM image_objects WHERE object_key = ?";
+    private static final String UNREFERENCED_SQL = "SELECT object_key FROM image_objects WHERE ref_count = 0 LIMIT 100";
+
+    private static final Pattern CONTENT_KEY = Pattern.compile("[0-9a-f]{64}");
+    // marks a batch slot whose reference has been taken over by abort()
+    private static final String CLOSED = "";
+
+    @Value("${s3.upload.threads:8}")
+    private int uploadThreads;
+
+    @Value("${s3.upload.max-concurrent:16}")
+    private int maxConcurrentUploads;
+
+    private ExecutorService uploadExecutor;
+    private Semaphore uploadPermits;
+    // references commit on their own, also when the upload runs inside a caller's transaction
+    private TransactionTemplate referenceTransactions;
+
+    // Kept private rather than a bean: any Executor bean makes Boot drop its applicationTaskExecutor, which @Async relies on.
+    // When the pool is saturated the request thread uploads itself, which slows that request down instead of queueing
+    // without limit.
+    @PostConstruct
+    void initUploads() {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(uploadThreads, uploadThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(uploadThreads * 8),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "s3-upload-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        uploadExecutor = executor;
+        uploadPermits = new Semaphore(maxConcurrentUploads, true);
+        referenceTransactions = new TransactionTemplate(transactionManager);
+        referenceTransactions.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PreDestroy
+    void shutdownUploads() {
+        uploadExecutor.shutdown();
+    }
+
 
     public void migrateImagesToS3() {
         List<Image> images = imageRepository.findAll();
@@ -50,25 +153,274 @@ public class S3ImageService {
         }
     }
 
+    // Uploads run in parallel on the upload pool; URLs come back in the order of the files.
+    // All or nothing: if one upload fails, the others are cancelled and the references already taken are released.
     public List<String> uploadImages(List<MultipartFile> files) throws IOException {
-        List<String> urls = new ArrayList<>();
+        if (files == null || files.isEmpty()) {
+            return List.of();
+        }
 
-        for (MultipartFile file : files) {
-            String fileName = System.currentTimeMillis() + "_" + file.getOriginalFilename();
+        // a slot gets the key once its upload succeeded, or CLOSED when abort() got there first
+        AtomicReferenceArray<String> stored = new AtomicReferenceArray<>(files.size());
+        List<Future<String>> uploads = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            MultipartFile file = files.get(i);
+            int slot = i;
+            uploads.add(uploadExecutor.submit(() -> {
+                String key = store(file);
+                if (!stored.compareAndSet(slot, null, key)) {
+                    // the batch was aborted while this upload was still running
+                    release(key);
+                }
+                return urlFor(key);
+            }));
+        }
 
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(fileName)
-                    .contentType(file.getContentType())
-                    .build();
+        List<String> urls = new ArrayList<>(files.size());
+        try {
+            for (Future<String> upload : uploads) {
+                urls.add(upload.get());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw abort(uploads, stored, new IOException("Image upload interrupted", ex));
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException io) {
+                throw abort(uploads, stored, io);
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw abort(uploads, stored, runtime);
+            }
+            throw abort(uploads, stored, new IOException("Image upload failed", cause));
+        }
+        releaseOnRollback(urls);
+        return urls;
+    }
 
-            s3Client.putObject(putObjectRequest, RequestBody.fromBytes(file.getBytes()));
+    // Single image outside a listing batch, e.g. an image added to an existing product
+    public String uploadImage(MultipartFile file) throws IOException {
+        String url = urlFor(store(file));
+        releaseOnRollback(List.of(url));
+        return url;
+    }
 
-            String s3Url = "https://" + bucketName + ".s3." + region + ".amazonaws.com/" + fileName;
-            urls.add(s3Url);
+    /**
+     * Stores one part under its content key, the SHA-256 of its bytes. The hash is computed in a streaming pass
+     * over the part (spooled to disk by the servlet container), then a reference is taken on the key; if the
+     * bytes are already in S3 the PUT is skipped, otherwise the part is streamed into the PUT with its known
+     * length. Permits bound how many parts are read at once across all requests.
+     */
+    private String store(MultipartFile file) throws IOException {
+        try {
+            if (!uploadPermits.tryAcquire(UPLOAD_PERMIT_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                throw new IOException("Too many image uploads in progress, try again shortly");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Image upload interrupted", ex);
         }
 
-        return urls;
+        long started = System.nanoTime();
+        String acquired = null;
+        try {
+            String key = contentKey(file);
+            boolean alreadyStored = acquire(key);
+            acquired = key;
+            if (alreadyStored) {
+                uploadStats.deduplicated();
+                return key;
+            }
+
+            try (InputStream content = file.getInputStream()) {
+                PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(key)
+                        .contentType(file.getContentType())
+                        .contentLength(file.getSize())
+                        .build();
+
+                s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(content, file.getSize()));
+            }
+            referenceTransactions.executeWithoutResult(status -> jdbcTemplate.update(MARK_UPLOADED_SQL, key));
+            uploadStats.success(System.nanoTime() - started, file.getSize());
+            return key;
+        } catch (IOException | RuntimeException ex) {
+            uploadStats.failure(System.nanoTime() - started);
+            if (acquired != null) {
+                try {
+                    release(acquired);
+                } catch (RuntimeException cleanupFailure) {
+                    ex.addSuppressed(cleanupFailure);
+                }
+            }
+            throw ex;
+        } finally {
+            uploadPermits.release();
+        }
+    }
+
+    private static String contentKey(MultipartFile file) throws IOException {
+        MessageDigest sha256;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+        try (InputStream content = new DigestInputStream(file.getInputStream(), sha256)) {
+            content.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(sha256.digest());
+    }
+
+    // Takes one reference on the key; true when a previous upload of the same bytes has already completed.
+    // An upload still in flight does not count: both PUT the same bytes, which is harmless.
+    private boolean acquire(String key) {
+        return Boolean.TRUE.equals(referenceTransactions.execute(status -> {
+            jdbcTemplate.update(ACQUIRE_SQL, key, Timestamp.from(Instant.now()));
+            return jdbcTemplate.queryForObject(UPLOADED_SQL, Boolean.class, key);
+        }));
+    }
+
+    /**
+     * Drops one reference per URL, e.g. for image rows that were just deleted. An object and its renditions
+     * are deleted from S3 when the last reference goes. Inside a transaction this waits for the commit, so a
+     * rolled-back delete never takes an object away from rows that still use it.
+     */
+    public void releaseImages(List<String> s3Urls) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    releaseAll(s3Urls);
+                }
+            });
+        } else {
+            releaseAll(s3Urls);
+        }
+    }
+
+    // Same as releaseImages but immediately; returns how many S3 objects were deleted
+    public int releaseAll(List<String> s3Urls) {
+        int deleted = 0;
+        for (String s3Url : s3Urls) {
+            if (s3Url != null && !s3Url.isEmpty()) {
+                deleted += release(keyFromUrl(s3Url));
+            }
+        }
+        return deleted;
+    }
+
+    private int release(String key) {
+        if (!CONTENT_KEY.matcher(key).matches()) {
+            // uploaded before content addressing: the object belongs to exactly one image row
+            return deleteObjects(objectKeys(key));
+        }
+        Integer deleted = referenceTransactions.execute(status -> {
+            jdbcTemplate.update(RELEASE_SQL, Timestamp.from(Instant.now()), key);
+            return collect(key);
+        });
+        return deleted != null ? deleted : 0;
+    }
+
+    // Deletes the object if it is unreferenced. The row stays locked until the S3 delete is done, so an upload of
+    // the same bytes waits in acquire() and then finds no row, and PUTs the object again instead of skipping it.
+    private int collect(String key) {
+        if (jdbcTemplate.queryForList(LOCK_UNREFERENCED_SQL, String.class, key).isEmpty()) {
+            return 0;
+        }
+        int deleted = deleteObjects(objectKeys(key));
+        jdbcTemplate.update(DELETE_OBJECT_ROW_SQL, key);
+        return deleted;
+    }
+
+    // Picks up objects whose last reference went away without being collected, e.g. across a restart
+    @Scheduled(fixedDelayString = "${images.gc.interval-ms:600000}")
+    public void collectUnreferenced() {
+        for (String key : jdbcTemplate.queryForList(UNREFERENCED_SQL, String.class)) {
+            try {
+                referenceTransactions.execute(status -> collect(key));
+            } catch (RuntimeException ex) {
+                logger.warn("Could not collect {} from S3, will retry", key, ex);
+            }
+        }
+    }
+
+    // References taken for a transaction that then rolls back have no image rows to release them later
+    private void releaseOnRollback(List<String> s3Urls) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    releaseAll(s3Urls);
+                }
+            }
+        });
+    }
+
+    private String urlFor(String key) {
+        return "https://" + bucketName + ".s3." + region + ".amazonaws.com/" + key;
+    }
+
+    // The original and every rendition derived from it
+    private static List<String> objectKeys(String key) {
+        List<String> keys = new ArrayList<>();
+        keys.add(key);
+        for (Rendition rendition : Rendition.values()) {
+            keys.add(renditionKey(key, rendition));
+        }
+        return keys;
+    }
+
+    // Renditions are written once under a key derived from the original and never change, so they can be cached forever
+    public String uploadRendition(String key, byte[] bytes) {
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType("image/jpeg")
+                .cacheControl("public, max-age=31536000, immutable")
+                .build();
+
+        s3Client.putObject(putObjectRequest, RequestBody.fromBytes(bytes));
+        return urlFor(key);
+    }
+
+    public void downloadTo(String key, Path target) throws IOException {
+        GetObjectRequest getObjectRequest = GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .build();
+
+        try (InputStream content = s3Client.getObject(getObjectRequest)) {
+            Files.copy(content, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Uploads that already finished are released here; ones still running release their own key when they finish
+    private <E extends Exception> E abort(List<Future<String>> uploads, AtomicReferenceArray<String> stored, E failure) {
+        for (Future<String> upload : uploads) {
+            if (upload.cancel(true)) {
+                uploadStats.cancelled();
+            }
+        }
+        for (int i = 0; i < stored.length(); i++) {
+            String key = stored.getAndSet(i, CLOSED);
+            if (key != null) {
+                try {
+                    release(key);
+                } catch (RuntimeException cleanupFailure) {
+                    failure.addSuppressed(cleanupFailure);
+                }
+            }
+        }
+        return failure;
+    }
+
+    public ImageUploadStatsDto getUploadStats() {
+        return uploadStats.snapshot();
     }
 
     public void deleteImage(String fileName) {
@@ -80,6 +432,36 @@ public class S3ImageService {
         s3Client.deleteObject(deleteRequest);
     }
 
+    // One DeleteObjects request per 1000 keys (the S3 maximum); returns how many objects S3 reported deleted
+    public int deleteObjects(List<String> keys) {
+        int deleted = 0;
+        for (int from = 0; from < keys.size(); from += MAX_KEYS_PER_DELETE) {
+            List<ObjectIdentifier> objects = keys.subList(from, Math.min(keys.size(), from + MAX_KEYS_PER_DELETE)).stream()
+                    .map(key -> ObjectIdentifier.builder().key(key).build())
+                    .toList();
+            DeleteObjectsResponse response = s3Client.deleteObjects(DeleteObjectsRequest.builder()
+                    .bucket(bucketName)
+                    .delete(Delete.builder().objects(objects).quiet(false).build())
+                    .build());
+            deleted += response.deleted().size();
+            response.errors().forEach(error ->
+                    logger.warn("Could not delete {} from S3: {} {}", error.key(), error.code(), error.message()));
+        }
+        return deleted;
+    }
+
+    // Object key of an uploaded image, i.e. the last path segment of its public URL
+    public static String keyFromUrl(String s3Url) {
+        return s3Url.substring(s3Url.lastIndexOf('/') + 1);
+    }
+
+    // e.g. <sha256> -> <sha256>_thumb.jpg (older keys lose their extension first); flat so keyFromUrl still applies
+    public static String renditionKey(String key, Rendition rendition) {
+        int dot = key.lastIndexOf('.');
+        String stem = dot > 0 ? key.substring(0, dot) : key;
+        return stem + "_" + rendition.getSuffix() + ".jpg";
+    }
+
     public void deleteImages(List<String> fileNames) {
         if (fileNames == null || fileNames.isEmpty()) return;
 
@@ -96,7 +478,51 @@ public class S3ImageService {
         }
     }
 
+    // Per-upload latency, measured from hashing the part to S3 acknowledging the PUT; deduplicated uploads are not timed
+    private static final class UploadStats {
 
+        private final LongAdder uploads = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder cancelled = new LongAdder();
+        private final LongAdder deduplicated = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLong lastNanos = new AtomicLong();
+
+        private void success(long nanos, long size) {
+            uploads.increment();
+            bytes.add(size);
+            record(nanos);
+        }
 
+        private void failure(long nanos) {
+            failures.increment();
+            record(nanos);
+        }
+
+        private void cancelled() {
+            cancelled.increment();
+        }
 
+        // the bytes were already stored, so nothing was sent
+        private void deduplicated() {
+            deduplicated.increment();
+        }
+
+        private void record(long nanos) {
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            lastNanos.set(nanos);
+        }
+
+        private ImageUploadStatsDto snapshot() {
+            long succeeded = uploads.sum();
+            long failed = failures.sum();
+            long measured = succeeded + failed;
+            double averageMillis = measured == 0 ? 0 : totalNanos.sum() / 1_000_000.0 / measured;
+            return new ImageUploadStatsDto(succeeded, failed, cancelled.sum(), deduplicated.sum(), bytes.sum(),
+                    averageMillis, maxNanos.get() / 1_000_000, lastNanos.get() / 1_000_000);
+        }
+    }
 }
@@ -0,0 +1,10 @@
+package com.nd.service;
+
+import com.nd.dto.SharedProductSnapshot;
+
+public interface SharedProductSnapshotService {
+
+    SharedProductSnapshot getSnapshot(int productId);
+
+    void evict(int productId);
+}
@@ -0,0 +1,12 @@
+package com.nd.service;
+
+import java.util.List;
+
+public interface SimilarProductService {
+
+    // Product ids of the listing's precomputed neighbors, most similar first
+    List<Integer> getSimilar(int productId, int limit);
+
+    // The user has just wishlisted productId; pairs it with the other listings on their wishlist
+    void recordWishlist(int userId, int productId);
+}
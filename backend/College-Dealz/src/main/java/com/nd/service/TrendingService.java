@@ -0,0 +1,20 @@
+package com.nd.service;
+
+import java.util.List;
+
+public interface TrendingService {
+
+    // Sort field value that asks the university feed for the trending ranking
+    String SORT_FIELD = "trending";
+
+    void recordView(int productId);
+
+    void recordWishlist(int productId);
+
+    void recordChat(int productId);
+
+    // Product ids of the campus's trending listings, most popular first
+    List<Integer> getTrending(int universityId, int offset, int limit);
+
+    int countTrending(int universityId);
+}
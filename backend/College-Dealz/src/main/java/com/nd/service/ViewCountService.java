@@ -0,0 +1,9 @@
+package com.nd.service;
+
+public interface ViewCountService {
+
+    void recordView(int productId);
+
+    // Stored count plus the views not yet flushed to the database
+    long getViewCount(int productId, Long storedCount);
+}
@@ -0,0 +1,34 @@
+package com.nd.utils;
+
+// Conditional request helpers for endpoints the frontend polls
+public final class ETags {
+
+    private ETags() {
+    }
+
+    // If-None-Match may list several tags or "*"; a weak tag still matches for a GET-style revalidation
+    public static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null || eTag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (unquote(tag).equals(unquote(eTag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String unquote(String tag) {
+        return tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")
+                ? tag.substring(1, tag.length() - 1)
+                : tag;
+    }
+}
@@ -0,0 +1,99 @@
+package com.nd.utils;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Reads the EXIF Orientation tag (0x0112) from a JPEG without decoding it; anything else is orientation 1
+public final class ExifOrientation {
+
+    public static final int NORMAL = 1;
+
+    private static final int MARKER_SOI = 0xD8;
+    private static final int MARKER_APP1 = 0xE1;
+    private static final int MARKER_SOS = 0xDA;
+    private static final int TAG_ORIENTATION = 0x0112;
+
+    private ExifOrientation() {
+    }
+
+    public static int read(InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(input);
+        try {
+            if (in.readUnsignedByte() != 0xFF || in.readUnsignedByte() != MARKER_SOI) {
+                return NORMAL;
+            }
+            // metadata segments come before the first scan; stop there
+            while (true) {
+                if (in.readUnsignedByte() != 0xFF) {
+                    return NORMAL;
+                }
+                int marker = in.readUnsignedByte();
+                while (marker == 0xFF) {
+                    marker = in.readUnsignedByte();
+                }
+                if (marker == MARKER_SOS) {
+                    return NORMAL;
+                }
+                int length = in.readUnsignedShort() - 2;
+                if (length < 0) {
+                    return NORMAL;
+                }
+                if (marker == MARKER_APP1) {
+                    byte[] segment = new byte[length];
+                    in.readFully(segment);
+                    int orientation = fromExif(segment);
+                    if (orientation != 0) {
+                        return orientation;
+                    }
+                } else {
+                    in.skipNBytes(length);
+                }
+            }
+        } catch (EOFException ex) {
+            return NORMAL;
+        }
+    }
+
+    // segment = "Exif\0\0" + TIFF header + IFD0; 0 when it is not an EXIF segment or has no orientation
+    private static int fromExif(byte[] segment) {
+        if (segment.length < 14 || segment[0] != 'E' || segment[1] != 'x' || segment[2] != 'i' || segment[3] != 'f') {
+            return 0;
+        }
+        int tiff = 6;
+        boolean littleEndian = segment[tiff] == 'I' && segment[tiff + 1] == 'I';
+        if (!littleEndian && !(segment[tiff] == 'M' && segment[tiff + 1] == 'M')) {
+            return 0;
+        }
+        long ifd = tiff + unsigned32(segment, tiff + 4, littleEndian);
+        if (ifd + 2 > segment.length) {
+            return 0;
+        }
+        int entries = unsigned16(segment, (int) ifd, littleEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = (int) ifd + 2 + i * 12;
+            if (entry + 12 > segment.length) {
+                return 0;
+            }
+            if (unsigned16(segment, entry, littleEndian) == TAG_ORIENTATION) {
+                // SHORT value, stored left-aligned in the 4-byte value field
+                int value = unsigned16(segment, entry + 8, littleEndian);
+                return value >= 1 && value <= 8 ? value : NORMAL;
+            }
+        }
+        return 0;
+    }
+
+    private static int unsigned16(byte[] data, int offset, boolean littleEndian) {
+        int b0 = data[offset] & 0xFF;
+        int b1 = data[offset + 1] & 0xFF;
+        return littleEndian ? b1 << 8 | b0 : b0 << 8 | b1;
+    }
+
+    private static long unsigned32(byte[] data, int offset, boolean littleEndian) {
+        long high = unsigned16(data, littleEndian ? offset + 2 : offset, littleEndian);
+        long low = unsigned16(data, littleEndian ? offset : offset + 2, littleEndian);
+        return high << 16 | low;
+    }
+}
@@ -0,0 +1,90 @@
+package com.nd.utils;
+
+import com.nd.dto.ProductCardDto;
+import com.nd.enums.ProductSortField;
+import com.nd.exceptions.ApiException;
+import lombok.Getter;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Continuation token for the keyset (seek) feed.
+ * Holds the sort value and product id of the last row a client has seen, so the next page
+ * starts right after it instead of skipping OFFSET rows.
+ */
+@Getter
+public class FeedCursor {
+
+    // v2 added the null marker; v1 cursors wrote a null sort value as the text "null" and are rejected
+    private static final String VERSION = "v2";
+    private static final String SEPARATOR = "|";
+    // precedes the value, so a null sort value cannot be confused with a name that reads "null" or ""
+    private static final String NULL_VALUE = "N";
+    private static final String PRESENT_VALUE = "V";
+
+    private final ProductSortField sortField;
+    private final Sort.Direction direction;
+    // already parsed into the column's type; null when the last row had no value for the sort field
+    private final Comparable<?> value;
+    private final int id;
+
+    private FeedCursor(ProductSortField sortField, Sort.Direction direction, Comparable<?> value, int id) {
+        this.sortField = sortField;
+        this.direction = direction;
+        this.value = value;
+        this.id = id;
+    }
+
+    public static FeedCursor after(ProductCardDto last, ProductSortField sortField, Sort.Direction direction) {
+        return new FeedCursor(sortField, direction, sortField.valueOf(last), last.getId());
+    }
+
+    public String encode() {
+        // the value goes last so that a separator inside a product name cannot shift the other parts
+        String raw = value == null
+                ? String.join(SEPARATOR, VERSION, sortField.name(), direction.name(), String.valueOf(id), NULL_VALUE, "")
+                : String.join(SEPARATOR, VERSION, sortField.name(), direction.name(), String.valueOf(id), PRESENT_VALUE,
+                        sortField.format(value));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static FeedCursor decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 6);
+            if (parts.length != 6 || !VERSION.equals(parts[0])) {
+                throw new ApiException("Invalid cursor");
+            }
+            ProductSortField sortField = ProductSortField.valueOf(parts[1]);
+            Comparable<?> value;
+            if (NULL_VALUE.equals(parts[4])) {
+                value = null;
+            } else if (PRESENT_VALUE.equals(parts[4])) {
+                // a tampered value fails here, as a 400, rather than later in the query
+                value = sortField.parse(parts[5]);
+            } else {
+                throw new ApiException("Invalid cursor");
+            }
+            return new FeedCursor(
+                    sortField,
+                    Sort.Direction.valueOf(parts[2]),
+                    value,
+                    Integer.parseInt(parts[3]));
+        } catch (IllegalArgumentException | DateTimeParseException | ArithmeticException e) {
+            throw new ApiException("Invalid cursor");
+        }
+    }
+
+    // A cursor only makes sense for the ordering it was issued for
+    public void verify(ProductSortField sortField, Sort.Direction direction) {
+        if (this.sortField != sortField || this.direction != direction) {
+            throw new ApiException("Cursor was issued for a different sort, restart from the first page");
+        }
+    }
+}
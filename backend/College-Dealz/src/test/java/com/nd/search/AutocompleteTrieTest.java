@@ -0,0 +1,180 @@
+package com.nd.search;
+
+import com.nd.enums.Category;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AutocompleteTrieTest {
+
+	private static final Instant MONDAY = Instant.parse("2025-01-06T10:00:00Z");
+
+	@Test
+	void completesFromAnyWordStart() {
+		AutocompleteTrie trie = new AutocompleteTrie(100);
+		trie.put(1, "Scientific Calculator", Category.ELECTRONICS, MONDAY);
+
+		assertEquals(List.of("scientific calculator"), texts(trie.complete("calc", 10)));
+		assertEquals(List.of("scientific calculator"), texts(trie.complete("Sci", 10)));
+
+		List<AutocompleteTrie.Entry> categories = trie.complete("elec", 10);
+		assertEquals(List.of("electronics"), texts(categories));
+		assertEquals(Category.ELECTRONICS, categories.get(0).getCategory());
+		assertNull(trie.complete("calc", 10).get(0).getCategory());
+	}
+
+	@Test
+	void prefixMayEndPartWayAlongAnEdge() {
+		AutocompleteTrie trie = new AutocompleteTrie(100);
+		trie.put(1, "desk lamp", null, MONDAY);
+
+		assertEquals(List.of("desk lamp"), texts(trie.complete("d", 10)));
+		assertEquals(List.of("desk lamp"), texts(trie.complete("desk l", 10)));
+		assertEquals(List.of(), texts(trie.complete("desks", 10)));
+		assertEquals(List.of(), texts(trie.complete("", 10)));
+	}
+
+	@Test
+	void splitsEdgesWherePhrasesBranch() {
+		AutocompleteTrie trie = new AutocompleteTrie(100);
+		trie.put(1, "desk lamp", null, day(1));
+		trie.put(2, "desk", null, day(2));
+		trie.put(3, "design book", null, day(3));
+		trie.put(4, "desktop", null, day(4));
+
+		assertEquals(List.of("desktop", "design book", "desk", "desk lamp"), texts(trie.complete("des", 10)));
+		assertEquals(List.of("desktop", "desk", "desk lamp"), texts(trie.complete("desk", 10)));
+		assertEquals(List.of("design book"), texts(trie.complete("desi", 10)));
+		assertEquals(List.of("desk lamp"), texts(trie.complete("desk l", 10)));
+		assertEquals(List.of(), texts(trie.complete("dex", 10)));
+	}
+
+	@Test
+	void mergesEdgesBackAfterRemoval() {
+		AutocompleteTrie trie = new AutocompleteTrie(100);
+		trie.put(1, "desk lamp", null, day(1));
+		trie.put(2, "desk", null, day(2));
+		trie.put(3, "design book", null, day(3));
+
+		trie.remove(2);
+		assertEquals(List.of("desk lamp"), texts(trie.complete("desk", 10)));
+		trie.remove(3);
+		assertEquals(List.of("desk lamp"), texts(trie.complete("des", 10)));
+		assertEquals(List.of(), texts(trie.complete("desi", 10)));
+		assertEquals(List.of(), texts(trie.complete("book", 10)));
+
+		// the merged edge has to split again for new phrases
+		trie.put(4, "desktop", null, day(4));
+		trie.put(5, "desk", null, day(5));
+		assertEquals(List.of("desk", "desktop", "desk lamp"), texts(trie.complete("desk", 10)));
+		assertEquals(List.of("desk lamp"), texts(trie.complete("lamp", 10)));
+
+		trie.remove(1);
+		trie.remove(4);
+		trie.remove(5);
+		assertEquals(0, trie.size());
+		assertEquals(List.of(), texts(trie.complete("d", 10)));
+	}
+
+	@Test
+	void ranksByListingCountThenNewest() {
+		AutocompleteTrie trie = new AutocompleteTrie(100);
+		trie.put(1, "chair", null, day(1));
+		trie.put(2, "Chair!", null, day(2));
+		trie.put(3, "chair cushion", null, day(5));
+		trie.put(4, "chairs", null, day(3));
+
+		List<AutocompleteTrie.Entry> completions = trie.complete("chair", 10);
+		assertEquals(List.of("chair", "chair cushion", "chairs"), texts(completions));
+		assertEquals(2, completions.get(0).getListingCount());
+		assertEquals(day(2), completions.get(0).getNewest());
+		assertEquals(List.of("chair", "chair cushion"), texts(trie.complete("chair", 2)));
+	}
+
+	@Test
+	void removingTheNewestListingAgesThePhrase() {
+		AutocompleteTrie trie = new AutocompleteTrie(100);
+		trie.put(1, "guitar", null, day(1));
+		trie.put(2, "guitar", null, day(6));
+		trie.put(3, "guitar strings", null, day(4));
+		trie.put(4, "guitar strings", null, day(2));
+
+		assertEquals(List.of("guitar", "guitar strings"), texts(trie.complete("gui", 10)));
+		trie.remove(2);
+		assertEquals(List.of("guitar strings", "guitar"), texts(trie.complete("gui", 10)));
+		assertEquals(day(1), trie.complete("guitar", 10).get(1).getNewest());
+	}
+
+	@Test
+	void putReplacesTheListingsPhrase() {
+		AutocompleteTrie trie = new AutocompleteTrie(100);
+		trie.put(1, "sofa", Category.FURNITURE, MONDAY);
+		trie.put(1, "couch", Category.FURNITURE, MONDAY);
+
+		assertEquals(List.of(), texts(trie.complete("sofa", 10)));
+		assertEquals(List.of("couch"), texts(trie.complete("cou", 10)));
+		assertEquals(2, trie.size());
+	}
+
+	@Test
+	void evictsTheLowestRankedPhraseOverCapacity() {
+		AutocompleteTrie trie = new AutocompleteTrie(2);
+		trie.put(1, "printer", null, day(1));
+		trie.put(2, "printer", null, day(2));
+		trie.put(3, "projector", null, day(4));
+		trie.put(4, "pressure cooker", null, day(3));
+
+		assertEquals(2, trie.size());
+		assertEquals(List.of("printer", "projector"), texts(trie.complete("p", 10)));
+
+		// an evicted phrase's listing can still be removed and re-added
+		trie.remove(4);
+		trie.put(4, "pressure cooker", null, day(5));
+		assertEquals(List.of("printer", "pressure cooker"), texts(trie.complete("pr", 10)));
+	}
+
+	@Test
+	void keepsTheTopCompletionsCurrentAsPhrasesChange() {
+		AutocompleteTrie trie = new AutocompleteTrie(100);
+		for (int id = 1; id <= 25; id++) {
+			trie.put(id, "book " + id, null, day(id));
+		}
+
+		List<String> top = texts(trie.complete("book", 50));
+		assertEquals(AutocompleteTrie.MAX_COMPLETIONS, top.size());
+		assertEquals("book 25", top.get(0));
+		assertEquals("book 6", top.get(top.size() - 1));
+
+		// removing one lets the best phrase below the cut back in
+		trie.remove(25);
+		top = texts(trie.complete("book", 50));
+		assertEquals("book 24", top.get(0));
+		assertEquals("book 5", top.get(top.size() - 1));
+
+		// a second listing lifts a phrase from below the cut to the front
+		trie.put(26, "book 1", null, day(0));
+		assertEquals(List.of("book 1", "book 24"), texts(trie.complete("book", 2)));
+		assertEquals(List.of("book 1"), texts(trie.complete("1", 1)));
+	}
+
+	@Test
+	void normalizesPhrases() {
+		assertEquals("dell xps 13", AutocompleteTrie.normalize("  Dell   XPS-13!! "));
+		assertEquals("one two three four five six", AutocompleteTrie.normalize("one two three four five six seven"));
+		assertEquals("", AutocompleteTrie.normalize("***"));
+		assertEquals("", AutocompleteTrie.normalize(null));
+	}
+
+	private static Instant day(int days) {
+		return MONDAY.plusSeconds(days * 86400L);
+	}
+
+	private static List<String> texts(List<AutocompleteTrie.Entry> entries) {
+		return entries.stream().map(AutocompleteTrie.Entry::getText).toList();
+	}
+
+}
@@ -0,0 +1,121 @@
+package com.nd.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InvertedIndexTest {
+
+	@Test
+	void rarerTermsWeighMore() {
+		InvertedIndex index = new InvertedIndex();
+		index.put(1, Map.of("desk", 1, "oak", 1));
+		index.put(2, Map.of("lamp", 1, "oak", 1));
+		index.put(3, Map.of("desk", 1, "pine", 1));
+		index.put(4, Map.of("desk", 1, "metal", 1));
+
+		// "lamp" is in one listing, "desk" in three
+		SearchHits hits = index.search(List.of("desk", "lamp"), 0, 10);
+
+		assertEquals(List.of(2, 4, 3, 1), hits.getProductIds());
+		assertEquals(4, hits.getTotal());
+	}
+
+	@Test
+	void matchingMoreQueryTermsRanksHigher() {
+		InvertedIndex index = new InvertedIndex();
+		index.put(1, Map.of("desk", 1, "lamp", 1));
+		index.put(2, Map.of("desk", 1, "chair", 1));
+		index.put(3, Map.of("desk", 1, "shelf", 1));
+
+		assertEquals(List.of(1, 3, 2), index.search(List.of("desk", "lamp"), 0, 10).getProductIds());
+	}
+
+	@Test
+	void higherTermFrequencyRanksHigher() {
+		InvertedIndex index = new InvertedIndex();
+		index.put(1, Map.of("bike", 2, "road", 1));
+		index.put(2, Map.of("bike", 1, "road", 2));
+		index.put(3, Map.of("helmet", 3));
+
+		assertEquals(List.of(1, 2), index.search(List.of("bike"), 0, 10).getProductIds());
+		assertEquals(List.of(2, 1), index.search(List.of("road"), 0, 10).getProductIds());
+	}
+
+	@Test
+	void shorterListingsRankHigherForTheSameFrequency() {
+		InvertedIndex index = new InvertedIndex();
+		index.put(1, Map.of("phone", 1));
+		index.put(2, Map.of("phone", 1, "case", 3, "charger", 2));
+
+		assertEquals(List.of(1, 2), index.search(List.of("phone"), 0, 10).getProductIds());
+	}
+
+	@Test
+	void equalScoresPutTheNewestListingFirst() {
+		InvertedIndex index = new InvertedIndex();
+		index.put(5, Map.of("calculator", 1));
+		index.put(9, Map.of("calculator", 1));
+		index.put(7, Map.of("calculator", 1));
+
+		assertEquals(List.of(9, 7, 5), index.search(List.of("calculator"), 0, 10).getProductIds());
+	}
+
+	@Test
+	void repeatedQueryTermsCountOnce() {
+		InvertedIndex index = new InvertedIndex();
+		index.put(1, Map.of("desk", 1, "oak", 1));
+		index.put(2, Map.of("lamp", 1, "oak", 1));
+
+		// same score for both, so the tie-break decides; a doubled "desk" would put 1 first
+		assertEquals(List.of(2, 1), index.search(List.of("desk", "desk", "lamp"), 0, 10).getProductIds());
+	}
+
+	@Test
+	void pagesThroughTheRanking() {
+		InvertedIndex index = new InvertedIndex();
+		for (int id = 1; id <= 5; id++) {
+			index.put(id, Map.of("book", id, "used", 6 - id));
+		}
+
+		assertEquals(List.of(5, 4, 3, 2, 1), index.search(List.of("book"), 0, 10).getProductIds());
+		SearchHits page = index.search(List.of("book"), 1, 2);
+		assertEquals(List.of(4, 3), page.getProductIds());
+		assertEquals(5, page.getTotal());
+		SearchHits pastTheEnd = index.search(List.of("book"), 5, 2);
+		assertEquals(List.of(), pastTheEnd.getProductIds());
+		assertEquals(5, pastTheEnd.getTotal());
+	}
+
+	@Test
+	void putReplacesAndRemoveDropsAListing() {
+		InvertedIndex index = new InvertedIndex();
+		index.put(1, Map.of("lamp", 1));
+		index.put(2, Map.of("lamp", 1, "desk", 1));
+		index.put(1, Map.of("desk", 1));
+
+		assertEquals(List.of(2), index.search(List.of("lamp"), 0, 10).getProductIds());
+		assertEquals(2, index.size());
+
+		index.remove(2);
+		index.remove(3);
+
+		assertEquals(List.of(), index.search(List.of("lamp"), 0, 10).getProductIds());
+		assertEquals(List.of(1), index.search(List.of("desk"), 0, 10).getProductIds());
+		assertEquals(1, index.size());
+	}
+
+	@Test
+	void noMatchesForUnknownTermsOrAnEmptyIndex() {
+		assertEquals(0, new InvertedIndex().search(List.of("desk"), 0, 10).getTotal());
+
+		InvertedIndex index = new InvertedIndex();
+		index.put(1, Map.of("desk", 1));
+		assertEquals(0, index.search(List.of("sofa"), 0, 10).getTotal());
+		assertEquals(0, index.search(List.of(), 0, 10).getTotal());
+	}
+
+}
@@ -0,0 +1,133 @@
+package com.nd.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Expected stems are the full-stemmer outputs for the examples in Porter's paper
+class PorterStemmerTest {
+
+	@Test
+	void step1PluralsAndParticiples() {
+		assertStems(
+				"caresses", "caress",
+				"ponies", "poni",
+				"ties", "ti",
+				"caress", "caress",
+				"cats", "cat",
+				"feed", "feed",
+				"agreed", "agre",
+				"plastered", "plaster",
+				"bled", "bled",
+				"motoring", "motor",
+				"sing", "sing",
+				"conflated", "conflat",
+				"troubled", "troubl",
+				"sized", "size",
+				"hopping", "hop",
+				"tanned", "tan",
+				"falling", "fall",
+				"hissing", "hiss",
+				"fizzed", "fizz",
+				"failing", "fail",
+				"filing", "file",
+				"happy", "happi",
+				"sky", "sky");
+	}
+
+	@Test
+	void step2DoubleSuffixes() {
+		assertStems(
+				"relational", "relat",
+				"conditional", "condit",
+				"rational", "ration",
+				"valenci", "valenc",
+				"hesitanci", "hesit",
+				"digitizer", "digit",
+				"conformabli", "conform",
+				"radicalli", "radic",
+				"differentli", "differ",
+				"vileli", "vile",
+				"analogousli", "analog",
+				"vietnamization", "vietnam",
+				"predication", "predic",
+				"operator", "oper",
+				"feudalism", "feudal",
+				"decisiveness", "decis",
+				"hopefulness", "hope",
+				"callousness", "callous",
+				"formaliti", "formal",
+				"sensitiviti", "sensit",
+				"sensibiliti", "sensibl");
+	}
+
+	@Test
+	void step3And4Suffixes() {
+		assertStems(
+				"triplicate", "triplic",
+				"formative", "form",
+				"formalize", "formal",
+				"electriciti", "electr",
+				"electrical", "electr",
+				"hopeful", "hope",
+				"goodness", "good",
+				"revival", "reviv",
+				"allowance", "allow",
+				"inference", "infer",
+				"airliner", "airlin",
+				"gyroscopic", "gyroscop",
+				"adjustable", "adjust",
+				"defensible", "defens",
+				"irritant", "irrit",
+				"replacement", "replac",
+				"adjustment", "adjust",
+				"dependent", "depend",
+				"adoption", "adopt",
+				"homologou", "homolog",
+				"communism", "commun",
+				"activate", "activ",
+				"angulariti", "angular",
+				"homologous", "homolog",
+				"effective", "effect",
+				"bowdlerize", "bowdler");
+	}
+
+	@Test
+	void step5FinalEAndDoubleL() {
+		assertStems(
+				"probate", "probat",
+				"rate", "rate",
+				"cease", "ceas",
+				"controll", "control",
+				"roll", "roll");
+	}
+
+	@Test
+	void listingVocabularyConflates() {
+		assertStems(
+				"chairs", "chair",
+				"chairing", "chair",
+				"textbooks", "textbook",
+				"batteries", "batteri",
+				"battery", "batteri",
+				"charging", "charg",
+				"charger", "charger");
+	}
+
+	@Test
+	void leavesVeryShortWordsAlone() {
+		assertStems(
+				"is", "is",
+				"as", "as",
+				"tv", "tv");
+	}
+
+	private static void assertStems(String... wordsAndStems) {
+		// one stemmer for every word, as TextAnalyzer.analyze uses it
+		PorterStemmer stemmer = new PorterStemmer();
+		for (int i = 0; i < wordsAndStems.length; i += 2) {
+			assertEquals(wordsAndStems[i + 1], stemmer.stem(wordsAndStems[i]), wordsAndStems[i]);
+		}
+	}
+
+}
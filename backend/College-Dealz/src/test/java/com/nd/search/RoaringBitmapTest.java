@@ -0,0 +1,223 @@
+package com.nd.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoaringBitmapTest {
+
+	// a chunk holds up to 4096 values as a sorted array and switches to a bitmap past that
+	private static final int ARRAY_MAX_SIZE = 4096;
+
+	@Test
+	void growsPastTheArrayLimitIntoABitmap() {
+		RoaringBitmap bitmap = new RoaringBitmap();
+		for (int value = 0; value < ARRAY_MAX_SIZE; value++) {
+			bitmap.add(value * 2);
+		}
+		assertEquals(ARRAY_MAX_SIZE, bitmap.getCardinality());
+
+		bitmap.add(1);
+		bitmap.add(ARRAY_MAX_SIZE * 2 + 1);
+
+		TreeSet<Integer> expected = new TreeSet<>();
+		IntStream.range(0, ARRAY_MAX_SIZE).forEach(value -> expected.add(value * 2));
+		expected.add(1);
+		expected.add(ARRAY_MAX_SIZE * 2 + 1);
+		assertSameValues(expected, bitmap);
+		assertFalse(bitmap.contains(3));
+	}
+
+	@Test
+	void shrinksBackBelowTheArrayLimit() {
+		RoaringBitmap bitmap = range(0, ARRAY_MAX_SIZE + 2);
+		TreeSet<Integer> expected = values(0, ARRAY_MAX_SIZE + 2);
+
+		// bitmap -> array on the way down, then array -> bitmap again on the way up
+		for (int value = ARRAY_MAX_SIZE + 1; value >= ARRAY_MAX_SIZE - 2; value--) {
+			bitmap.remove(value);
+			expected.remove(value);
+			assertSameValues(expected, bitmap);
+		}
+		for (int value = ARRAY_MAX_SIZE - 2; value <= ARRAY_MAX_SIZE + 1; value++) {
+			bitmap.add(value);
+			expected.add(value);
+			assertSameValues(expected, bitmap);
+		}
+	}
+
+	@Test
+	void addingAndRemovingTheSameValueTwiceIsANoOp() {
+		RoaringBitmap sparse = new RoaringBitmap();
+		sparse.add(7);
+		sparse.add(7);
+		assertEquals(1, sparse.getCardinality());
+		sparse.remove(8);
+		sparse.remove(7);
+		sparse.remove(7);
+		assertTrue(sparse.isEmpty());
+
+		RoaringBitmap dense = range(0, ARRAY_MAX_SIZE + 10);
+		dense.add(5);
+		dense.remove(ARRAY_MAX_SIZE + 20);
+		assertEquals(ARRAY_MAX_SIZE + 10, dense.getCardinality());
+	}
+
+	@Test
+	void keepsValuesInSeparateChunks() {
+		int[] values = {0, 65535, 65536, 65537, 131071, 131072, 1 << 20, Integer.MAX_VALUE};
+		RoaringBitmap bitmap = new RoaringBitmap();
+		for (int i = values.length - 1; i >= 0; i--) {
+			bitmap.add(values[i]);
+		}
+
+		assertArrayEquals(values, bitmap.toArray());
+		assertFalse(bitmap.contains(65538));
+		assertFalse(bitmap.contains(1));
+
+		// emptying one chunk leaves its neighbours alone
+		bitmap.remove(65536);
+		bitmap.remove(65537);
+		assertArrayEquals(new int[]{0, 65535, 131071, 131072, 1 << 20, Integer.MAX_VALUE}, bitmap.toArray());
+	}
+
+	@Test
+	void denseChunkNextToASparseOne() {
+		RoaringBitmap bitmap = range(65536, 65536 + ARRAY_MAX_SIZE + 1);
+		bitmap.add(65535);
+		bitmap.add(65536 * 2);
+
+		TreeSet<Integer> expected = values(65536, 65536 + ARRAY_MAX_SIZE + 1);
+		expected.add(65535);
+		expected.add(65536 * 2);
+		assertSameValues(expected, bitmap);
+	}
+
+	@Test
+	void andOfTwoArrays() {
+		assertAnd(stepped(0, 3000, 2), stepped(0, 3000, 3));
+	}
+
+	@Test
+	void andOfArrayAndBitmap() {
+		assertAnd(stepped(0, 9000, 7), stepped(0, 9000, 1));
+		assertAnd(stepped(0, 9000, 1), stepped(0, 9000, 7));
+	}
+
+	@Test
+	void andOfTwoBitmaps() {
+		// large overlap stays a bitmap, small overlap turns back into an array
+		assertAnd(stepped(0, 20000, 1), stepped(5000, 15000, 1));
+		assertAnd(stepped(0, 20000, 2), stepped(1, 20000, 2));
+		assertAnd(stepped(0, 20000, 2), stepped(0, 20000, 3));
+	}
+
+	@Test
+	void orOfTwoArrays() {
+		assertOr(stepped(0, 1000, 2), stepped(0, 1000, 3));
+		// each side fits an array, the union does not
+		assertOr(stepped(0, 8000, 2), stepped(1, 8000, 2));
+	}
+
+	@Test
+	void orOfArrayAndBitmap() {
+		assertOr(stepped(0, 30000, 10), stepped(0, 9000, 1));
+		assertOr(stepped(0, 9000, 1), stepped(0, 30000, 10));
+	}
+
+	@Test
+	void orOfTwoBitmaps() {
+		assertOr(stepped(0, 10000, 1), stepped(5000, 15000, 1));
+	}
+
+	@Test
+	void combinesChunksPresentOnOneSideOnly() {
+		TreeSet<Integer> left = stepped(0, 100, 1);
+		left.addAll(stepped(65536, 65536 + 5000, 1));
+		TreeSet<Integer> right = stepped(65536 * 3, 65536 * 3 + 50, 1);
+		right.addAll(stepped(65536, 65536 + 10, 1));
+
+		assertAnd(left, right);
+		assertOr(left, right);
+		assertTrue(RoaringBitmap.and(bitmapOf(stepped(0, 10, 1)), bitmapOf(stepped(65536, 65546, 1))).isEmpty());
+	}
+
+	@Test
+	void resultsDoNotShareContainersWithTheirInputs() {
+		RoaringBitmap sparse = range(0, 10);
+		RoaringBitmap dense = range(65536, 65536 + ARRAY_MAX_SIZE + 1);
+		RoaringBitmap union = RoaringBitmap.or(sparse, dense);
+		RoaringBitmap copy = dense.copy();
+
+		union.add(11);
+		union.remove(65536);
+		copy.remove(65537);
+
+		assertFalse(sparse.contains(11));
+		assertTrue(dense.contains(65536));
+		assertTrue(dense.contains(65537));
+		assertEquals(ARRAY_MAX_SIZE + 1, dense.getCardinality());
+	}
+
+	private static void assertAnd(TreeSet<Integer> left, TreeSet<Integer> right) {
+		TreeSet<Integer> expected = new TreeSet<>(left);
+		expected.retainAll(right);
+		RoaringBitmap a = bitmapOf(left);
+		RoaringBitmap b = bitmapOf(right);
+
+		assertSameValues(expected, RoaringBitmap.and(a, b));
+		assertEquals(expected.size(), RoaringBitmap.andCardinality(a, b));
+		assertEquals(expected.size(), RoaringBitmap.andCardinality(b, a));
+		assertSameValues(left, a);
+		assertSameValues(right, b);
+	}
+
+	private static void assertOr(TreeSet<Integer> left, TreeSet<Integer> right) {
+		TreeSet<Integer> expected = new TreeSet<>(left);
+		expected.addAll(right);
+		RoaringBitmap a = bitmapOf(left);
+		RoaringBitmap b = bitmapOf(right);
+
+		assertSameValues(expected, RoaringBitmap.or(a, b));
+		assertSameValues(left, a);
+		assertSameValues(right, b);
+	}
+
+	private static void assertSameValues(TreeSet<Integer> expected, RoaringBitmap actual) {
+		assertEquals(expected.size(), actual.getCardinality());
+		assertEquals(expected.isEmpty(), actual.isEmpty());
+		assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), actual.toArray());
+		for (int value : expected) {
+			assertTrue(actual.contains(value), "missing " + value);
+		}
+	}
+
+	private static RoaringBitmap bitmapOf(TreeSet<Integer> values) {
+		RoaringBitmap bitmap = new RoaringBitmap();
+		values.forEach(bitmap::add);
+		return bitmap;
+	}
+
+	private static RoaringBitmap range(int from, int to) {
+		return bitmapOf(values(from, to));
+	}
+
+	private static TreeSet<Integer> values(int from, int to) {
+		return stepped(from, to, 1);
+	}
+
+	private static TreeSet<Integer> stepped(int from, int to, int step) {
+		TreeSet<Integer> values = new TreeSet<>();
+		for (int value = from; value < to; value += step) {
+			values.add(value);
+		}
+		return values;
+	}
+
+}
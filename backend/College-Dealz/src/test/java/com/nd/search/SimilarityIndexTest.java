@@ -0,0 +1,64 @@
+package com.nd.search;
+
+import com.nd.dto.ProductSnapshot;
+import com.nd.enums.Category;
+import com.nd.enums.ProductStatus;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SimilarityIndexTest {
+
+	@Test
+	void relatedListingsBecomeNeighborsBothWays() {
+		SimilarityIndex index = new SimilarityIndex(2);
+		index.put(product(1, "desk lamp", Category.ELECTRONICS));
+		index.put(product(2, "desk lamp led", Category.ELECTRONICS));
+		index.put(product(3, "mountain bicycle", Category.SPORTS));
+
+		assertEquals(List.of(2), index.neighbors(1, 10));
+		assertEquals(List.of(1), index.neighbors(2, 10));
+		assertEquals(List.of(), index.neighbors(3, 10));
+	}
+
+	@Test
+	void keepsOnlyTheBestK() {
+		SimilarityIndex index = new SimilarityIndex(2);
+		index.put(product(1, "desk lamp", Category.ELECTRONICS));
+		index.put(product(2, "desk lamp led", Category.ELECTRONICS));
+		index.put(product(3, "desk lamp white", Category.ELECTRONICS));
+		index.put(product(4, "desk lamp brass", Category.ELECTRONICS));
+
+		// equal scores: newer listings first
+		assertEquals(List.of(4, 3), index.neighbors(1, 10));
+		assertEquals(List.of(4), index.neighbors(1, 1));
+	}
+
+	@Test
+	void removalRefillsTheListsItWasOn() {
+		SimilarityIndex index = new SimilarityIndex(2);
+		index.put(product(1, "desk lamp", Category.ELECTRONICS));
+		index.put(product(2, "desk lamp led", Category.ELECTRONICS));
+		index.put(product(3, "desk lamp white", Category.ELECTRONICS));
+		index.put(product(4, "desk lamp brass", Category.ELECTRONICS));
+
+		index.remove(4);
+		assertEquals(List.of(3, 2), index.neighbors(1, 10));
+		assertEquals(List.of(), index.neighbors(4, 10));
+
+		// an edit that makes a listing unrelated takes it off the list just the same
+		index.put(product(3, "mountain bicycle", Category.SPORTS));
+		assertEquals(List.of(2), index.neighbors(1, 10));
+		assertEquals(List.of(), index.neighbors(3, 10));
+	}
+
+	private static ProductSnapshot product(int id, String name, Category category) {
+		return new ProductSnapshot(id, 1, 100 + id, name, null, category, null, new BigDecimal("20.00"), 6,
+				Instant.parse("2025-01-06T10:00:00Z"), ProductStatus.AVAILABLE);
+	}
+
+}
@@ -0,0 +1,116 @@
+package com.nd.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpellingIndexTest {
+
+	@Test
+	void correctsSingleEdits() {
+		SpellingIndex index = new SpellingIndex();
+		index.put(1, List.of("laptop", "chair", "calculator"));
+
+		assertEquals(List.of("laptop"), index.suggest("lapto", 5));
+		assertEquals(List.of("laptop"), index.suggest("laptopp", 5));
+		assertEquals(List.of("laptop"), index.suggest("labtop", 5));
+		assertEquals(List.of("chair"), index.suggest("chiar", 5));
+		// past the indexed prefix length
+		assertEquals(List.of("calculator"), index.suggest("calcualtor", 5));
+	}
+
+	@Test
+	void correctsUpToTwoEditsButNoMore() {
+		SpellingIndex index = new SpellingIndex();
+		index.put(1, List.of("laptop"));
+
+		assertEquals(List.of("laptop"), index.suggest("lptp", 5));
+		assertEquals(List.of("laptop"), index.suggest("lxptxp", 5));
+		assertEquals(List.of(), index.suggest("lxxtxp", 5));
+	}
+
+	@Test
+	void closerWordsComeFirstThenMoreUsedOnes() {
+		SpellingIndex index = new SpellingIndex();
+		index.put(1, List.of("desk"));
+		index.put(2, List.of("disk"));
+		index.put(3, List.of("disk"));
+		index.put(4, List.of("dusky"));
+
+		// desk and disk are one edit from "dask"; disk is in more listings
+		assertEquals(List.of("disk", "desk", "dusky"), index.suggest("dask", 5));
+		assertEquals(List.of("desk", "disk"), index.suggest("desks", 2));
+		assertEquals(List.of("disk"), index.suggest("dask", 1));
+	}
+
+	@Test
+	void equallyCloseAndEquallyUsedWordsAreAlphabetical() {
+		SpellingIndex index = new SpellingIndex();
+		index.put(1, List.of("bat", "cat", "hat"));
+
+		assertEquals(List.of("bat", "cat", "hat"), index.suggest("zat", 5));
+	}
+
+	@Test
+	void knownAndShortWordsGetNoSuggestions() {
+		SpellingIndex index = new SpellingIndex();
+		index.put(1, List.of("lamp", "lamps"));
+
+		assertEquals(List.of(), index.suggest("lamp", 5));
+		assertEquals(List.of(), index.suggest("la", 5));
+	}
+
+	@Test
+	void ignoresShortAndNonAlphabeticWords() {
+		SpellingIndex index = new SpellingIndex();
+		index.put(1, List.of("tv", "i5", "256gb", "monitor"));
+
+		assertFalse(index.contains("tv"));
+		assertFalse(index.contains("i5"));
+		assertFalse(index.contains("256gb"));
+		assertTrue(index.contains("monitor"));
+	}
+
+	@Test
+	void wordsStayWhileAnyListingUsesThem() {
+		SpellingIndex index = new SpellingIndex();
+		index.put(1, List.of("bicycle", "helmet"));
+		index.put(2, List.of("bicycle", "bicycle"));
+
+		index.remove(1);
+		assertTrue(index.contains("bicycle"));
+		assertFalse(index.contains("helmet"));
+		assertEquals(List.of(), index.suggest("helmt", 5));
+
+		index.remove(2);
+		index.remove(3);
+		assertFalse(index.contains("bicycle"));
+		assertEquals(List.of(), index.suggest("bicycel", 5));
+	}
+
+	@Test
+	void putReplacesTheListingsWords() {
+		SpellingIndex index = new SpellingIndex();
+		index.put(1, List.of("sofa"));
+		index.put(1, List.of("couch"));
+
+		assertFalse(index.contains("sofa"));
+		assertEquals(List.of("couch"), index.suggest("cuoch", 5));
+	}
+
+	@Test
+	void distanceCountsTranspositionsAsOneEdit() {
+		assertEquals(0, SpellingIndex.distance("chair", "chair"));
+		assertEquals(1, SpellingIndex.distance("chair", "chiar"));
+		assertEquals(1, SpellingIndex.distance("chair", "chairs"));
+		assertEquals(1, SpellingIndex.distance("chair", "chaie"));
+		assertEquals(2, SpellingIndex.distance("chair", "cahri"));
+		// lengths too far apart are cut off at one past the limit
+		assertEquals(3, SpellingIndex.distance("chair", "chairmen"));
+	}
+
+}
@@ -0,0 +1,108 @@
+package com.nd.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TrendingBoardTest {
+
+	@Test
+	void logAddAddsInLinearSpace() {
+		assertEquals(4.0, TrendingBoard.logAdd(3, 3), 1e-9);
+		assertEquals(Math.log(1025) / Math.log(2), TrendingBoard.logAdd(10, 0), 1e-9);
+		assertEquals(TrendingBoard.logAdd(10, 0), TrendingBoard.logAdd(0, 10), 1e-12);
+		// far past where 2^x overflows a double
+		assertEquals(5001.0, TrendingBoard.logAdd(5000, 5000), 1e-9);
+	}
+
+	@Test
+	void ranksByAccumulatedScoreWithNewerListingsFirstOnTies() {
+		TrendingBoard board = new TrendingBoard(10);
+		board.add(1, 0);
+		board.add(2, 1);
+		board.add(1, 0);
+
+		// two weight-1 events on 1 equal one weight-2 event on 2
+		assertEquals(List.of(2, 1), board.top(0, 10));
+
+		board.add(1, 0);
+		assertEquals(List.of(1, 2), board.top(0, 10));
+	}
+
+	@Test
+	void laterEventsOutweighOlderOnes() {
+		TrendingBoard board = new TrendingBoard(10);
+		// two views at t0 against one view a half-life and a half later
+		board.add(1, 0);
+		board.add(1, 0);
+		board.add(2, 1.5);
+
+		assertEquals(List.of(2, 1), board.top(0, 10));
+	}
+
+	@Test
+	void keepsOnlyTheTopK() {
+		TrendingBoard board = new TrendingBoard(2);
+		board.add(1, 0);
+		board.add(2, 1);
+		board.add(3, 2);
+		board.add(4, -1);
+
+		assertEquals(List.of(3, 2), board.top(0, 10));
+		assertEquals(2, board.size());
+
+		// a listing outside the top K climbs back in once its score passes the last one
+		board.add(1, 0);
+		assertEquals(List.of(3, 2), board.top(0, 10));
+		board.add(1, 0.5);
+		assertEquals(List.of(3, 1), board.top(0, 10));
+	}
+
+	@Test
+	void removalPromotesTheBestListingOutsideTheTopK() {
+		TrendingBoard board = new TrendingBoard(2);
+		board.add(1, 0);
+		board.add(2, 1);
+		board.add(3, 2);
+		board.add(4, 0.5);
+
+		board.remove(3);
+		assertEquals(List.of(2, 4), board.top(0, 10));
+
+		// removing a listing outside the top K or an unknown one changes nothing
+		board.remove(1);
+		board.remove(99);
+		assertEquals(List.of(2, 4), board.top(0, 10));
+
+		board.remove(2);
+		board.remove(4);
+		assertEquals(List.of(), board.top(0, 10));
+		assertEquals(0, board.size());
+	}
+
+	@Test
+	void registerOnlySetsTheStartingScore() {
+		TrendingBoard board = new TrendingBoard(10);
+		board.register(1, 5);
+		board.register(1, 10);
+		board.add(2, 7);
+
+		assertEquals(List.of(2, 1), board.top(0, 10));
+	}
+
+	@Test
+	void pagesThroughTheTopK() {
+		TrendingBoard board = new TrendingBoard(10);
+		for (int id = 1; id <= 5; id++) {
+			board.add(id, id);
+		}
+
+		assertEquals(List.of(5, 4), board.top(0, 2));
+		assertEquals(List.of(3, 2), board.top(2, 2));
+		assertEquals(List.of(1), board.top(4, 2));
+		assertEquals(List.of(), board.top(5, 2));
+	}
+
+}
@@ -0,0 +1,99 @@
+package com.nd.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlurHashTest {
+
+	private static final String BASE83 =
+			"0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+
+	@Test
+	void matchesTheReferenceEncoderForSolidImages() {
+		// every AC component of a flat image sits at the midpoint (9, 9, 9) -> "fQ"
+		assertEquals("L00000fQfQfQfQfQfQfQfQfQfQfQ", BlurHash.encode(solid(32, 24, Color.BLACK), 4, 3));
+		assertEquals("00TSUA", BlurHash.encode(solid(8, 8, Color.WHITE), 1, 1));
+	}
+
+	@Test
+	void lengthAndSizeFlagFollowTheComponentCounts() {
+		BufferedImage image = solid(16, 16, Color.GRAY);
+		for (int x = 1; x <= 9; x += 4) {
+			for (int y = 1; y <= 9; y += 4) {
+				String hash = BlurHash.encode(image, x, y);
+				assertEquals(4 + 2 * x * y, hash.length());
+				assertEquals((x - 1) + (y - 1) * 9, decode83(hash, 0, 1));
+			}
+		}
+	}
+
+	@Test
+	void dcComponentIsTheAverageColour() {
+		String hash = BlurHash.encode(solid(10, 10, new Color(200, 40, 120)), 4, 3);
+
+		assertEquals(0xC82878, decode83(hash, 2, 4));
+	}
+
+	@Test
+	void acComponentsFollowWhereTheLightIs() {
+		BufferedImage darkLeft = split(20, 10, Color.BLACK, Color.WHITE);
+		BufferedImage darkRight = split(20, 10, Color.WHITE, Color.BLACK);
+
+		// first AC pair is the horizontal cosine; quantised around 9, red is the most significant digit
+		int left = decode83(BlurHash.encode(darkLeft, 2, 1), 6, 2) / (19 * 19);
+		int right = decode83(BlurHash.encode(darkRight, 2, 1), 6, 2) / (19 * 19);
+		assertTrue(left < 9, "brighter on the right should be negative, was " + left);
+		assertTrue(right > 9, "brighter on the left should be positive, was " + right);
+	}
+
+	@Test
+	void onlyUsesTheBase83Alphabet() {
+		String hash = BlurHash.encode(split(7, 5, Color.ORANGE, Color.BLUE), 9, 9);
+
+		for (char c : hash.toCharArray()) {
+			assertTrue(BASE83.indexOf(c) >= 0, "unexpected " + c);
+		}
+	}
+
+	@Test
+	void rejectsComponentCountsOutsideOneToNine() {
+		BufferedImage image = solid(4, 4, Color.GRAY);
+
+		assertThrows(IllegalArgumentException.class, () -> BlurHash.encode(image, 0, 3));
+		assertThrows(IllegalArgumentException.class, () -> BlurHash.encode(image, 4, 10));
+	}
+
+	private static BufferedImage solid(int width, int height, Color color) {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = image.createGraphics();
+		graphics.setColor(color);
+		graphics.fillRect(0, 0, width, height);
+		graphics.dispose();
+		return image;
+	}
+
+	private static BufferedImage split(int width, int height, Color left, Color right) {
+		BufferedImage image = solid(width, height, left);
+		Graphics2D graphics = image.createGraphics();
+		graphics.setColor(right);
+		graphics.fillRect(width / 2, 0, width - width / 2, height);
+		graphics.dispose();
+		return image;
+	}
+
+	private static int decode83(String hash, int from, int length) {
+		int value = 0;
+		for (int i = from; i < from + length; i++) {
+			value = value * 83 + BASE83.indexOf(hash.charAt(i));
+		}
+		return value;
+	}
+
+}
@@ -0,0 +1,147 @@
+package com.nd.utils;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ExifOrientationTest {
+
+	private static final int TAG_MAKE = 0x010F;
+	private static final int TAG_ORIENTATION = 0x0112;
+
+	@Test
+	void readsBigEndianExif() throws IOException {
+		assertEquals(6, read(jpeg(exif(false, TAG_ORIENTATION, 6))));
+	}
+
+	@Test
+	void readsLittleEndianExif() throws IOException {
+		assertEquals(8, read(jpeg(exif(true, TAG_ORIENTATION, 8))));
+	}
+
+	@Test
+	void findsOrientationAfterOtherTags() throws IOException {
+		assertEquals(3, read(jpeg(exif(true, TAG_MAKE, 0, TAG_ORIENTATION, 3))));
+	}
+
+	@Test
+	void skipsOtherSegmentsBeforeTheExifOne() throws IOException {
+		byte[] jfif = segment(0xE0, "JFIF\0\1\1\0\0\1\0\1\0\0".getBytes(StandardCharsets.ISO_8859_1));
+		byte[] xmp = segment(0xE1, "http://ns.adobe.com/xap/1.0/\0<x:xmpmeta/>".getBytes(StandardCharsets.ISO_8859_1));
+
+		assertEquals(5, read(jpeg(jfif, xmp, exif(false, TAG_ORIENTATION, 5))));
+	}
+
+	@Test
+	void toleratesFillBytesBeforeAMarker() throws IOException {
+		byte[] exif = exif(false, TAG_ORIENTATION, 7);
+		byte[] padded = new byte[exif.length + 2];
+		padded[0] = (byte) 0xFF;
+		padded[1] = (byte) 0xFF;
+		System.arraycopy(exif, 0, padded, 2, exif.length);
+
+		assertEquals(7, read(jpeg(padded)));
+	}
+
+	@Test
+	void encoderOutputWithoutExifIsNormal() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB), "jpg", out);
+
+		assertEquals(ExifOrientation.NORMAL, read(out.toByteArray()));
+	}
+
+	@Test
+	void exifWithoutOrientationIsNormal() throws IOException {
+		assertEquals(ExifOrientation.NORMAL, read(jpeg(exif(false, TAG_MAKE, 0))));
+	}
+
+	@Test
+	void outOfRangeOrientationIsNormal() throws IOException {
+		assertEquals(ExifOrientation.NORMAL, read(jpeg(exif(false, TAG_ORIENTATION, 9))));
+		assertEquals(ExifOrientation.NORMAL, read(jpeg(exif(false, TAG_ORIENTATION, 0))));
+	}
+
+	@Test
+	void nonJpegAndTruncatedInputIsNormal() throws IOException {
+		byte[] png = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+		byte[] jpeg = jpeg(exif(false, TAG_ORIENTATION, 6));
+
+		assertEquals(ExifOrientation.NORMAL, read(png));
+		assertEquals(ExifOrientation.NORMAL, read(new byte[0]));
+		assertEquals(ExifOrientation.NORMAL, read(Arrays.copyOf(jpeg, 20)));
+	}
+
+	private static int read(byte[] data) throws IOException {
+		return ExifOrientation.read(new ByteArrayInputStream(data));
+	}
+
+	// SOI, the given segments, then the start of a scan
+	private static byte[] jpeg(byte[]... segments) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(0xFF);
+		out.write(0xD8);
+		for (byte[] segment : segments) {
+			out.writeBytes(segment);
+		}
+		out.writeBytes(segment(0xDA, new byte[]{0, 0, 0, 0}));
+		return out.toByteArray();
+	}
+
+	private static byte[] segment(int marker, byte[] payload) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(0xFF);
+		out.write(marker);
+		write16(out, payload.length + 2, false);
+		out.writeBytes(payload);
+		return out.toByteArray();
+	}
+
+	// APP1 "Exif\0\0" + TIFF header + IFD0 with one SHORT entry per tag/value pair
+	private static byte[] exif(boolean littleEndian, int... tagsAndValues) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.writeBytes("Exif\0\0".getBytes(StandardCharsets.ISO_8859_1));
+		out.writeBytes((littleEndian ? "II" : "MM").getBytes(StandardCharsets.ISO_8859_1));
+		write16(out, 42, littleEndian);
+		write32(out, 8, littleEndian);
+		write16(out, tagsAndValues.length / 2, littleEndian);
+		for (int i = 0; i < tagsAndValues.length; i += 2) {
+			write16(out, tagsAndValues[i], littleEndian);
+			write16(out, 3, littleEndian);
+			write32(out, 1, littleEndian);
+			write16(out, tagsAndValues[i + 1], littleEndian);
+			write16(out, 0, littleEndian);
+		}
+		write32(out, 0, littleEndian);
+		return segment(0xE1, out.toByteArray());
+	}
+
+	private static void write16(ByteArrayOutputStream out, int value, boolean littleEndian) {
+		if (littleEndian) {
+			out.write(value & 0xFF);
+			out.write((value >> 8) & 0xFF);
+		} else {
+			out.write((value >> 8) & 0xFF);
+			out.write(value & 0xFF);
+		}
+	}
+
+	private static void write32(ByteArrayOutputStream out, int value, boolean littleEndian) {
+		if (littleEndian) {
+			write16(out, value & 0xFFFF, true);
+			write16(out, value >>> 16, true);
+		} else {
+			write16(out, value >>> 16, false);
+			write16(out, value & 0xFFFF, false);
+		}
+	}
+
+}
@@ -0,0 +1,115 @@
+package com.nd.utils;
+
+import com.nd.dto.ProductCardDto;
+import com.nd.enums.ProductSortField;
+import com.nd.exceptions.ApiException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FeedCursorTest {
+
+	@Test
+	void roundTripsEverySortField() {
+		ProductCardDto last = card(42, "Desk lamp", new BigDecimal("12.50"), Instant.parse("2025-03-01T09:30:15.123Z"));
+
+		assertRoundTrip(last, ProductSortField.PRICE, Sort.Direction.ASC, new BigDecimal("12.50"));
+		assertRoundTrip(last, ProductSortField.POST_DATE, Sort.Direction.DESC, Instant.parse("2025-03-01T09:30:15.123Z"));
+		assertRoundTrip(last, ProductSortField.NAME, Sort.Direction.ASC, "Desk lamp");
+	}
+
+	@Test
+	void namesKeepSeparatorsAndNonAsciiText() {
+		ProductCardDto last = card(7, "Chair | desk|combo – ½ price", null, null);
+
+		assertRoundTrip(last, ProductSortField.NAME, Sort.Direction.DESC, "Chair | desk|combo – ½ price");
+	}
+
+	@Test
+	void nullSortValuesAreNotConfusedWithText() {
+		assertRoundTrip(card(1, null, null, null), ProductSortField.PRICE, Sort.Direction.ASC, null);
+		assertRoundTrip(card(2, null, null, null), ProductSortField.NAME, Sort.Direction.DESC, null);
+		assertRoundTrip(card(3, "null", null, null), ProductSortField.NAME, Sort.Direction.ASC, "null");
+		assertRoundTrip(card(4, "", null, null), ProductSortField.NAME, Sort.Direction.ASC, "");
+	}
+
+	@Test
+	void tokensAreUrlSafe() {
+		String token = FeedCursor.after(card(99, "??>>~~", null, null), ProductSortField.NAME, Sort.Direction.ASC).encode();
+
+		assertFalse(token.contains("+") || token.contains("/") || token.contains("="), token);
+	}
+
+	@Test
+	void noTokenMeansTheFirstPage() {
+		assertNull(FeedCursor.decode(null));
+		assertNull(FeedCursor.decode(""));
+	}
+
+	@Test
+	void rejectsMalformedTokensAsBadRequests() {
+		assertInvalid("not base64!");
+		assertInvalid(token("v2|PRICE|ASC|5|V"));
+		// v1 wrote nulls as the text "null"
+		assertInvalid(token("v1|PRICE|ASC|5|12.50"));
+		assertInvalid(token("v2|VIEWS|ASC|5|V|12"));
+		assertInvalid(token("v2|PRICE|UP|5|V|12"));
+		assertInvalid(token("v2|PRICE|ASC|five|V|12"));
+		assertInvalid(token("v2|PRICE|ASC|5|X|12"));
+	}
+
+	@Test
+	void rejectsValuesThatDoNotParseAsTheSortColumn() {
+		assertInvalid(token("v2|PRICE|ASC|5|V|cheap"));
+		assertInvalid(token("v2|POST_DATE|DESC|5|V|yesterday"));
+		assertInvalid(token("v2|POST_DATE|DESC|5|V|"));
+	}
+
+	@Test
+	void onlyFitsTheSortItWasIssuedFor() {
+		FeedCursor cursor = FeedCursor.after(card(1, "Lamp", BigDecimal.TEN, null), ProductSortField.PRICE, Sort.Direction.ASC);
+
+		assertDoesNotThrow(() -> cursor.verify(ProductSortField.PRICE, Sort.Direction.ASC));
+		assertThrows(ApiException.class, () -> cursor.verify(ProductSortField.PRICE, Sort.Direction.DESC));
+		assertThrows(ApiException.class, () -> cursor.verify(ProductSortField.NAME, Sort.Direction.ASC));
+	}
+
+	private static void assertRoundTrip(ProductCardDto last, ProductSortField sortField, Sort.Direction direction,
+										Comparable<?> expectedValue) {
+		FeedCursor decoded = FeedCursor.decode(FeedCursor.after(last, sortField, direction).encode());
+
+		assertEquals(sortField, decoded.getSortField());
+		assertEquals(direction, decoded.getDirection());
+		assertEquals(expectedValue, decoded.getValue());
+		assertEquals(last.getId().intValue(), decoded.getId());
+	}
+
+	private static void assertInvalid(String token) {
+		ApiException ex = assertThrows(ApiException.class, () -> FeedCursor.decode(token));
+		assertEquals("Invalid cursor", ex.getMessage());
+	}
+
+	private static String token(String raw) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static ProductCardDto card(int id, String name, BigDecimal price, Instant postDate) {
+		ProductCardDto card = new ProductCardDto();
+		card.setId(id);
+		card.setName(name);
+		card.setPrice(price);
+		card.setPostDate(postDate);
+		return card;
+	}
+
+}